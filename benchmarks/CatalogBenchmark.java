@@ -0,0 +1,66 @@
+package benchmarks;
+import exceptions.InvalidProductRequest;
+import exceptions.UnknownProductException;
+import organisers.Administrator;
+import organisers.AuctionHouse;
+import products.Product;
+import java.util.Random;
+
+/**
+ * Measures the cost of searching a product by id in the catalog of the
+ * auction house, for catalogs of increasing sizes. The cost per lookup
+ * should stay roughly the same, no matter how many products are available
+ */
+public class CatalogBenchmark {
+
+    private static final int[] CATALOG_SIZES = {1_000, 10_000, 100_000, 500_000};
+    private static final int LOOKUPS = 2_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Private constructor for hiding the default one
+     */
+    private CatalogBenchmark() {
+    }
+
+    public static void main(String[] args) throws UnknownProductException, InvalidProductRequest {
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+
+        for(int catalogSize : CATALOG_SIZES) {
+            //Fill the catalog with the required number of products
+            Administrator.resetAll();
+            for(int id = 0; id < catalogSize; id++) {
+                crtHouse.add(new Product(id, "product" + id, 10, 2000));
+            }
+
+            //Precompute the searched ids, so that the random generator is not measured
+            Random random = new Random(catalogSize);
+            int[] ids = new int[LOOKUPS];
+            for(int i = 0; i < LOOKUPS; i++) {
+                ids[i] = random.nextInt(catalogSize);
+            }
+
+            //Warm up the JIT compiler before the measured round
+            for(int round = 0; round < WARMUP_ROUNDS; round++) {
+                lookupAll(crtHouse, ids);
+            }
+
+            long start = System.nanoTime();
+            long checksum = lookupAll(crtHouse, ids);
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("catalog=%d lookups=%d %.1f ns/lookup (checksum %d)%n",
+                    catalogSize, LOOKUPS, (double) elapsed / LOOKUPS, checksum);
+        }
+        Administrator.resetAll();
+    }
+
+    //Searches every id and returns a checksum, so that the lookups are not eliminated
+    private static long lookupAll(AuctionHouse crtHouse, int[] ids) throws UnknownProductException, InvalidProductRequest {
+        long checksum = 0;
+        for(int id : ids) {
+            checksum += crtHouse.findProduct(id, 100).getId();
+        }
+        return checksum;
+    }
+}
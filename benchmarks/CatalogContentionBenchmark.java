@@ -0,0 +1,88 @@
+package benchmarks;
+import organisers.Administrator;
+import organisers.AuctionHouse;
+import products.Product;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the throughput of the catalog when it is used by an increasing number
+ * of threads. Every thread mostly searches products, and sometimes adds and deletes
+ * its own products, like the clients and the administrator do
+ */
+public class CatalogContentionBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+    private static final long DURATION_MILLIS = 2_000;
+
+    //One operation in this many is a write, half of them adds and half deletes
+    private static final int WRITE_RATIO = 10;
+
+    /**
+     * Private constructor for hiding the default one
+     */
+    private CatalogContentionBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        Administrator.resetAll();
+        for(int id = 0; id < CATALOG_SIZE; id++) {
+            crtHouse.add(new Product(id, "product" + id, 10, 2000));
+        }
+
+        //The maximum number of threads can be given as argument, else it is the number of cores
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        for(int threads = 1; threads <= maxThreads; threads *= 2) {
+            //Warm up with the same number of threads, then measure
+            run(crtHouse, threads);
+            double opsPerSecond = run(crtHouse, threads);
+            System.out.printf("threads=%d %.0f ops/s%n", threads, opsPerSecond);
+        }
+        Administrator.resetAll();
+    }
+
+    //Runs the mixed workload on the specified number of threads and returns the throughput
+    private static double run(AuctionHouse crtHouse, int threads) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+
+        List<Thread> workers = new ArrayList<>();
+        for(int t = 0; t < threads; t++) {
+            //Every thread writes products with ids from its own range, placed after the catalog
+            int firstOwnId = CATALOG_SIZE + t * 1_000_000;
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int nextOwnId = firstOwnId;
+                long count = 0;
+                while(System.currentTimeMillis() < deadline) {
+                    for(int i = 0; i < 1_000; i++) {
+                        int operation = random.nextInt(WRITE_RATIO);
+                        if(operation == 0) {
+                            crtHouse.add(new Product(nextOwnId++, "new product", 10, 2000));
+                        } else if(operation == 1 && nextOwnId > firstOwnId) {
+                            crtHouse.deleteProduct(new Product(--nextOwnId, "new product", 10, 2000));
+                        } else {
+                            try {
+                                crtHouse.findProduct(random.nextInt(CATALOG_SIZE), 100);
+                            } catch(Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }
+                    }
+                    count += 1_000;
+                }
+                operations.add(count);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        for(Thread worker : workers) {
+            worker.join();
+        }
+        return operations.sum() * 1000.0 / DURATION_MILLIS;
+    }
+}
@@ -0,0 +1,107 @@
+package benchmarks;
+import exceptions.JSONDataException;
+import exceptions.UnknownDataException;
+import org.json.simple.parser.ParseException;
+import organisers.Administrator;
+import organisers.AuctionHouse;
+import organisers.HouseSnapshot;
+import readers.JSONReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compares the time needed for loading the configuration of every test from its
+ * JSON file, sequentially or in parallel, with the time needed for restoring it
+ * from a snapshot, compressed or not
+ */
+public class StartupBenchmark {
+
+    private static final int TESTS = 10;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 50;
+
+    /**
+     * Private constructor for hiding the default one
+     */
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, ParseException, UnknownDataException, JSONDataException {
+        //The auction logs are not relevant for the measurement
+        Logger.getLogger("").setLevel(Level.WARNING);
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+
+        //Save a snapshot of every configuration, in both formats
+        Path[] plain = new Path[TESTS + 1];
+        Path[] compressed = new Path[TESTS + 1];
+        for(int testNumber = 1; testNumber <= TESTS; testNumber++) {
+            Administrator.resetAll();
+            JSONReader.readJSON(testNumber);
+            plain[testNumber] = Files.createTempFile("house" + testNumber, ".snapshot");
+            compressed[testNumber] = Files.createTempFile("house" + testNumber, ".snapshot.gz");
+            HouseSnapshot.save(crtHouse, plain[testNumber], false);
+            HouseSnapshot.save(crtHouse, compressed[testNumber], true);
+        }
+
+        try {
+            for(int round = 0; round < WARMUP_ROUNDS; round++) {
+                loadJSON(false);
+                loadJSON(true);
+                restore(crtHouse, plain);
+                restore(crtHouse, compressed);
+            }
+
+            long start = System.nanoTime();
+            for(int round = 0; round < MEASURED_ROUNDS; round++) {
+                loadJSON(false);
+            }
+            report("json", System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for(int round = 0; round < MEASURED_ROUNDS; round++) {
+                loadJSON(true);
+            }
+            report("parallel json", System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for(int round = 0; round < MEASURED_ROUNDS; round++) {
+                restore(crtHouse, plain);
+            }
+            report("snapshot", System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for(int round = 0; round < MEASURED_ROUNDS; round++) {
+                restore(crtHouse, compressed);
+            }
+            report("compressed snapshot", System.nanoTime() - start);
+        } finally {
+            for(int testNumber = 1; testNumber <= TESTS; testNumber++) {
+                Files.deleteIfExists(plain[testNumber]);
+                Files.deleteIfExists(compressed[testNumber]);
+            }
+            Administrator.resetAll();
+        }
+    }
+
+    //Loads the configuration of every test from its JSON file
+    private static void loadJSON(boolean parallel) throws IOException, ParseException, UnknownDataException, JSONDataException {
+        for(int testNumber = 1; testNumber <= TESTS; testNumber++) {
+            Administrator.resetAll();
+            JSONReader.readJSON(testNumber, parallel);
+        }
+    }
+
+    //Restores the configuration of every test from its snapshot
+    private static void restore(AuctionHouse crtHouse, Path[] snapshots) throws IOException {
+        for(int testNumber = 1; testNumber <= TESTS; testNumber++) {
+            HouseSnapshot.restore(crtHouse, snapshots[testNumber]);
+        }
+    }
+
+    private static void report(String source, long elapsed) {
+        System.out.printf("%s: %.2f ms per load of the %d tests%n", source, elapsed / 1e6 / MEASURED_ROUNDS, TESTS);
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+import exceptions.JSONDataException;
+import exceptions.UnknownDataException;
+import helper.ThreadMode;
+import multithreading.TaskExecutor;
+import org.json.simple.parser.ParseException;
+import organisers.Administrator;
+import organisers.AuctionHouse;
+import readers.JSONReader;
+import readers.XLSXReader;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compares the ways of running the add, delete and read tasks, by loading
+ * every test and running all its requests with each thread mode
+ */
+public class TaskExecutorBenchmark {
+
+    private static final int TESTS = 10;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+
+    /**
+     * Private constructor for hiding the default one
+     */
+    private TaskExecutorBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException, ParseException, UnknownDataException, JSONDataException {
+        //The auction logs are not relevant for the measurement
+        Logger.getLogger("").setLevel(Level.WARNING);
+
+        for(ThreadMode mode : ThreadMode.values()) {
+            TaskExecutor.getInstance().setMode(mode);
+
+            for(int round = 0; round < WARMUP_ROUNDS; round++) {
+                runAllTests();
+            }
+
+            long start = System.nanoTime();
+            for(int round = 0; round < MEASURED_ROUNDS; round++) {
+                runAllTests();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("%s: %.2f ms per run of the %d tests%n",
+                    mode, elapsed / 1e6 / MEASURED_ROUNDS, TESTS);
+        }
+        TaskExecutor.getInstance().shutdown();
+    }
+
+    //Loads every test and runs all its requests
+    private static void runAllTests() throws IOException, ParseException, UnknownDataException, JSONDataException {
+        for(int testNumber = 1; testNumber <= TESTS; testNumber++) {
+            Administrator.resetAll();
+            JSONReader.readJSON(testNumber);
+            XLSXReader.readXLSX(testNumber);
+            AuctionHouse.getInstance().awaitAuctions();
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package benchmarks;
+import org.json.simple.JSONValue;
+import readers.RequestConverter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates a synthetic workload much bigger than the tests: a configuration file in the
+ * JSON format of the tests and a binary request file, both placed in the same folder.
+ * The products are requested with a Zipf distribution, so that a few popular products
+ * receive most of the requests, and the auctions are organised for the most popular ones
+ */
+public class WorkloadGenerator {
+
+    //The names of the generated files, inside the folder of the workload
+    public static final String CONFIGURATION = "info.json";
+    public static final String REQUESTS = "requests.req";
+
+    private static final String[] PRODUCT_TYPES = {"furniture", "jewelry", "painting", "clothing", "antique"};
+    private static final String[] COLORS = {"oil", "tempera", "acrylic"};
+    private static final String[] COMPANIES = {"SRL", "SA"};
+    private static final String[] MATERIALS = {"gold", "silver", "wood", "cotton", "silk", "platinum"};
+    private static final String[] CITIES = {"Bucharest", "Cluj", "Iasi", "Timisoara", "Brasov"};
+
+    private static final int MIN_PRICE = 10;
+    private static final int MAX_PRICE = 100000;
+
+    private int productsPerType = 1000;
+    private int naturalClients = 500;
+    private int legalClients = 500;
+    private int brokers = 10;
+    private int auctions = 1000;
+    private int requests = 100000;
+    private double skew = 1.0;
+    private long seed = 42;
+
+    /**
+     * Generates a workload in the given folder. The counts are read from the system
+     * properties named after the setters, such as -Dworkload.requests=1000000
+     * @param args the folder of the workload
+     * @throws IOException if the files can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 1) {
+            System.err.println("Usage: WorkloadGenerator <folder>");
+            return;
+        }
+        WorkloadGenerator generator = new WorkloadGenerator()
+                .withProductsPerType(Integer.getInteger("workload.productsPerType", 1000))
+                .withNaturalClients(Integer.getInteger("workload.naturalClients", 500))
+                .withLegalClients(Integer.getInteger("workload.legalClients", 500))
+                .withBrokers(Integer.getInteger("workload.brokers", 10))
+                .withAuctions(Integer.getInteger("workload.auctions", 1000))
+                .withRequests(Integer.getInteger("workload.requests", 100000))
+                .withSkew(Double.parseDouble(System.getProperty("workload.skew", "1.0")))
+                .withSeed(Long.getLong("workload.seed", 42));
+        generator.generate(Paths.get(args[0]));
+    }
+
+    /**
+     * Sets the number of products generated for each of the five product types
+     * @param productsPerType the number of products of each type
+     * @return the same generator object
+     */
+    public WorkloadGenerator withProductsPerType(int productsPerType) {
+        this.productsPerType = productsPerType;
+        return this;
+    }
+
+    /**
+     * Sets the number of natural persons
+     * @param naturalClients the number of natural persons
+     * @return the same generator object
+     */
+    public WorkloadGenerator withNaturalClients(int naturalClients) {
+        this.naturalClients = naturalClients;
+        return this;
+    }
+
+    /**
+     * Sets the number of legal persons
+     * @param legalClients the number of legal persons
+     * @return the same generator object
+     */
+    public WorkloadGenerator withLegalClients(int legalClients) {
+        this.legalClients = legalClients;
+        return this;
+    }
+
+    /**
+     * Sets the number of brokers, besides the administrator
+     * @param brokers the number of brokers
+     * @return the same generator object
+     */
+    public WorkloadGenerator withBrokers(int brokers) {
+        this.brokers = brokers;
+        return this;
+    }
+
+    /**
+     * Sets the number of auctions, limited to the number of products
+     * @param auctions the number of auctions
+     * @return the same generator object
+     */
+    public WorkloadGenerator withAuctions(int auctions) {
+        this.auctions = auctions;
+        return this;
+    }
+
+    /**
+     * Sets the number of requests
+     * @param requests the number of requests
+     * @return the same generator object
+     */
+    public WorkloadGenerator withRequests(int requests) {
+        this.requests = requests;
+        return this;
+    }
+
+    /**
+     * Sets the exponent of the Zipf distribution of the requested products
+     * @param skew 0 for a uniform distribution, bigger for fewer popular products
+     * @return the same generator object
+     */
+    public WorkloadGenerator withSkew(double skew) {
+        this.skew = skew;
+        return this;
+    }
+
+    /**
+     * Sets the seed of the random generator, so that the same workload can be generated again
+     * @param seed the seed
+     * @return the same generator object
+     */
+    public WorkloadGenerator withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Writes the configuration file and the request file of the workload
+     * @param folder the folder of the workload, created if it does not exist
+     * @throws IOException if the files can not be written
+     */
+    public void generate(Path folder) throws IOException {
+        Files.createDirectories(folder);
+        Random random = new Random(seed);
+        int noProducts = productsPerType * PRODUCT_TYPES.length;
+        int noClients = naturalClients + legalClients;
+        if(noProducts == 0 || noClients == 0) {
+            throw new IllegalArgumentException("A workload needs at least one product and one client");
+        }
+
+        //The minimum prices are kept, so that every request can afford its product
+        int[] minPrices = new int[noProducts];
+        for(int id = 0; id < noProducts; id++) {
+            minPrices[id] = MIN_PRICE + random.nextInt(MAX_PRICE - MIN_PRICE);
+        }
+
+        //The product with rank r is byRank[r], the ranks being shuffled over the ids
+        int[] byRank = new int[noProducts];
+        for(int id = 0; id < noProducts; id++) {
+            byRank[id] = id;
+        }
+        for(int i = noProducts - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int aux = byRank[i];
+            byRank[i] = byRank[j];
+            byRank[j] = aux;
+        }
+
+        writeConfiguration(folder.resolve(CONFIGURATION), random, minPrices, byRank);
+        writeRequests(folder.resolve(REQUESTS), random, minPrices, byRank);
+    }
+
+    private void writeConfiguration(Path path, Random random, int[] minPrices, int[] byRank) throws IOException {
+        try(Writer out = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), 1 << 16)) {
+            out.write("{\n\"products\": [\n");
+            for(int id = 0; id < minPrices.length; id++) {
+                //The types alternate, so every type is spread over the whole catalog
+                String type = PRODUCT_TYPES[id % PRODUCT_TYPES.length];
+                out.write(id == 0 ? "{" : ",\n{");
+                field(out, "product_type", type, false);
+                field(out, "name", type + " " + id, true);
+                number(out, "min_price", minPrices[id]);
+                number(out, "year", 1500 + random.nextInt(525));
+                switch(type) {
+                    case "furniture":
+                        field(out, "type", "style " + random.nextInt(20), true);
+                        field(out, "material", pick(MATERIALS, random), true);
+                        break;
+                    case "jewelry":
+                        field(out, "material", pick(MATERIALS, random), true);
+                        field(out, "precious_stone", String.valueOf(random.nextBoolean()), true);
+                        break;
+                    case "painting":
+                        field(out, "painter_name", "painter " + random.nextInt(1000), true);
+                        field(out, "color", pick(COLORS, random), true);
+                        break;
+                    case "clothing":
+                        field(out, "designer", "designer " + random.nextInt(100), true);
+                        field(out, "material", pick(MATERIALS, random), true);
+                        break;
+                    default:
+                        number(out, "age", 50 + random.nextInt(3000));
+                        field(out, "origin", pick(CITIES, random), true);
+                        break;
+                }
+                out.write("}");
+            }
+
+            //The natural persons come first, so their ids are followed by those of the legal persons
+            out.write("\n],\n\"clients\": [\n");
+            for(int id = 0; id < naturalClients + legalClients; id++) {
+                boolean natural = id < naturalClients;
+                out.write(id == 0 ? "{" : ",\n{");
+                field(out, "client_type", natural ? "natural" : "legal", false);
+                field(out, "name", "client " + id, true);
+                field(out, "address", pick(CITIES, random), true);
+                if(natural) {
+                    field(out, "birth_date", (1 + random.nextInt(28)) + "." + String.format("%02d", 1 + random.nextInt(12))
+                            + "." + (1940 + random.nextInt(60)), true);
+                } else {
+                    field(out, "company", pick(COMPANIES, random), true);
+                    number(out, "capital", 100 + random.nextInt(10000));
+                }
+                out.write("}");
+            }
+
+            out.write("\n],\n\"brokers\": [\n");
+            for(int i = 0; i < brokers; i++) {
+                out.write(i == 0 ? "{" : ",\n{");
+                field(out, "name", "broker " + i, false);
+                number(out, "years_of_experience", 1 + random.nextInt(30));
+                number(out, "rating", 1 + random.nextInt(5));
+                out.write("}");
+            }
+
+            out.write("\n],\n\"administrator\": {");
+            field(out, "name", "administrator", false);
+            number(out, "years_of_experience", 20);
+            number(out, "rating", 5);
+
+            //The auctions are organised for the most popular products
+            out.write("},\n\"auctions\": [\n");
+            int noAuctions = Math.min(auctions, byRank.length);
+            for(int i = 0; i < noAuctions; i++) {
+                out.write(i == 0 ? "{" : ",\n{");
+                out.write("\"product_id\": " + byRank[i]);
+                number(out, "no_max_steps", 3 + random.nextInt(8));
+                number(out, "no_participants", 2 + random.nextInt(4));
+                out.write("}");
+            }
+            out.write("\n]\n}\n");
+        }
+    }
+
+    private void writeRequests(Path path, Random random, int[] minPrices, int[] byRank) throws IOException {
+        //The cumulative weights of the ranks, the rank r having the weight 1 / (r + 1)^skew
+        double[] cumulative = new double[byRank.length];
+        double total = 0;
+        for(int rank = 0; rank < byRank.length; rank++) {
+            total += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+        }
+
+        int noClients = naturalClients + legalClients;
+        try(RequestConverter.RequestWriter writer = new RequestConverter.RequestWriter(path)) {
+            for(int i = 0; i < requests; i++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                if(rank < 0) {
+                    rank = Math.min(-rank - 1, byRank.length - 1);
+                }
+                int productId = byRank[rank];
+
+                //The clients can afford between one and ten times the minimum price
+                int maxSum = minPrices[productId] * (1 + random.nextInt(10));
+                writer.accept(random.nextInt(noClients), productId, maxSum);
+            }
+        } catch(UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void field(Writer out, String name, String value, boolean separated) throws IOException {
+        out.write((separated ? ", \"" : "\"") + name + "\": \"" + JSONValue.escape(value) + "\"");
+    }
+
+    private static void number(Writer out, String name, int value) throws IOException {
+        out.write(", \"" + name + "\": " + value);
+    }
+}
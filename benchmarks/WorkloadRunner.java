@@ -0,0 +1,111 @@
+package benchmarks;
+import exceptions.JSONDataException;
+import exceptions.UnknownDataException;
+import metrics.AuctionMetrics;
+import multithreading.TaskExecutor;
+import org.json.simple.parser.ParseException;
+import organisers.Administrator;
+import organisers.AuctionHouse;
+import readers.BinaryRequestReader;
+import readers.JSONReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads a workload written by the WorkloadGenerator, signs up all its requests and waits
+ * for the auctions they start, then reports the load time, the throughput of the requests
+ * and of the auctions, the peak of the heap during the whole run and the auction metrics
+ */
+public class WorkloadRunner {
+
+    /**
+     * Private constructor for hiding the default one
+     */
+    private WorkloadRunner() {
+    }
+
+    /**
+     * Runs a workload
+     * @param args the folder of the workload, optionally followed by "parallel" for
+     * parsing and decoding the configuration on a fork/join pool
+     * @throws IOException if the files of the workload can not be read
+     * @throws ParseException if the configuration file cannot be parsed
+     * @throws JSONDataException if the configuration is invalid
+     * @throws UnknownDataException if the configuration has unknown subtypes
+     */
+    public static void main(String[] args) throws IOException, ParseException, UnknownDataException, JSONDataException {
+        if(args.length == 0) {
+            System.err.println("Usage: WorkloadRunner <folder> [parallel]");
+            return;
+        }
+        boolean parallel = args.length > 1 && "parallel".equals(args[1]);
+
+        //The auction logs are not relevant for the measurement
+        Logger.getLogger("").setLevel(Level.WARNING);
+        try {
+            System.out.print(run(Paths.get(args[0]), parallel));
+        } finally {
+            AuctionHouse.getInstance().getEvents().shutdown();
+            TaskExecutor.getInstance().shutdown();
+        }
+    }
+
+    /**
+     * Runs a workload in the auction house, after clearing it
+     * @param folder the folder of the workload
+     * @param parallel true for parsing and decoding the configuration on a fork/join pool
+     * @return the report of the run
+     * @throws IOException if the files of the workload can not be read
+     * @throws ParseException if the configuration file cannot be parsed
+     * @throws JSONDataException if the configuration is invalid
+     * @throws UnknownDataException if the configuration has unknown subtypes
+     */
+    public static String run(Path folder, boolean parallel)
+            throws IOException, ParseException, UnknownDataException, JSONDataException {
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        Administrator.resetAll();
+        System.gc();
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+
+        long start = System.nanoTime();
+        JSONReader.readJSON(folder.resolve(WorkloadGenerator.CONFIGURATION), parallel);
+        long loaded = System.nanoTime();
+        int noProducts = crtHouse.getProducts().size();
+
+        //The requests are counted from the file, the rejected ones included
+        long noRequests = BinaryRequestReader.readRequests(folder.resolve(WorkloadGenerator.REQUESTS));
+        long signedUp = System.nanoTime();
+        crtHouse.awaitAuctions();
+        long finished = System.nanoTime();
+
+        int noAuctions = crtHouse.getOrganisedAuctions();
+        return String.format("products: %d, clients: %d, brokers: %d%n", noProducts,
+                        crtHouse.getClients().size(), crtHouse.getBrokers().size())
+                + String.format("load: %.1f ms%n", (loaded - start) / 1e6)
+                + String.format("requests: %d in %.1f ms, %.0f requests/s%n", noRequests,
+                        (signedUp - loaded) / 1e6, noRequests / ((signedUp - loaded) / 1e9))
+                + String.format("auctions: %d in %.1f ms, %.0f auctions/s%n", noAuctions,
+                        (finished - loaded) / 1e6, noAuctions / ((finished - loaded) / 1e9))
+                + String.format("peak heap: %.1f MB%n", peakHeap() / 1e6)
+                + AuctionMetrics.getInstance().dump();
+    }
+
+    //Sums the peaks of the heap pools, which are reached at different moments, so it is an upper bound
+    private static long peakHeap() {
+        long peak = 0;
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if(pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
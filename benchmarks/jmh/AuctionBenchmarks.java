@@ -0,0 +1,161 @@
+package benchmarks.jmh;
+
+import clients.Client;
+import exceptions.DuplicateRequestException;
+import exceptions.InvalidProductRequest;
+import exceptions.UnknownProductException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import organisers.Auction;
+import organisers.AuctionResult;
+import organisers.BidBuffer;
+import organisers.Broker;
+import products.Product;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the hot paths of an auction: a whole auction started by the requests
+ * of the clients, one bidding step of a broker, the search of the winner, and the search
+ * of a product in the catalog. Every benchmark runs on a house of the sizes given by the
+ * parameters of HouseState. The suite is built by the jmh profile of the Maven build,
+ * with "mvn -P jmh package", and run from the root of the repository with
+ * "java -jar target/benchmarks.jar"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuctionBenchmarks {
+
+    /**
+     * A new product and its auction, added before every invocation, so that every measured
+     * auction starts from the same state
+     */
+    @State(Scope.Thread)
+    public static class AuctionState {
+        int nextProductId;
+        Product product;
+
+        @Setup(Level.Trial)
+        public void setUp(HouseState house) {
+            //The auctioned products get ids after the ones of the catalog
+            nextProductId = house.catalogSize;
+        }
+
+        @Setup(Level.Invocation)
+        public void addAuction(HouseState house) {
+            product = new Product(nextProductId, "auctioned" + nextProductId, HouseState.MIN_PRICE, 2000);
+            nextProductId++;
+            house.crtHouse.add(product);
+            house.crtHouse.add(new Auction(product.getId(), house.noMaxSteps, house.clientCount));
+        }
+    }
+
+    /**
+     * A broker with all the clients subscribed for the same product, and the auction of
+     * that product started
+     */
+    @State(Scope.Thread)
+    public static class BrokerState {
+        Broker broker;
+        Product product;
+        BidBuffer bids;
+        double biggestBid;
+
+        @Setup(Level.Trial)
+        public void setUp(HouseState house) throws DuplicateRequestException {
+            broker = new Broker("benchmark broker", 1, 5);
+            product = new Product(-1, "bid product", HouseState.MIN_PRICE, 2000);
+            for(Client c : house.clients) {
+                broker.add(c, product, HouseState.MAX_PRICE);
+            }
+            broker.prepare(product);
+            broker.start(product);
+
+            //The biggest bid of the first step is the one searched by the winner benchmark
+            bids = new BidBuffer(house.clientCount);
+            broker.bid(product, bids);
+            biggestBid = bids.max(0);
+            broker.notifyObservers(biggestBid, product);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            broker.reset(product);
+        }
+    }
+
+    /**
+     * The ids searched in the catalog, chosen randomly before the measurement
+     */
+    @State(Scope.Thread)
+    public static class LookupState {
+        int[] ids;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(HouseState house) {
+            Random random = new Random(house.catalogSize);
+            ids = new int[4096];
+            for(int i = 0; i < ids.length; i++) {
+                ids[i] = random.nextInt(house.catalogSize);
+            }
+        }
+    }
+
+    /**
+     * Signs up every client for a new product, the last request starting the auction, and
+     * waits for the auction to finish
+     */
+    @Benchmark
+    public AuctionResult fullAuction(HouseState house, AuctionState auction)
+            throws UnknownProductException, DuplicateRequestException, InvalidProductRequest {
+        CompletableFuture<AuctionResult> result = null;
+        for(Client c : house.clients) {
+            result = house.crtHouse.request(c, auction.product.getId(), HouseState.MAX_PRICE);
+        }
+        return result == null ? null : result.join();
+    }
+
+    /**
+     * Asks the broker for the bids of all his clients, for one step of the auction
+     */
+    @Benchmark
+    public double brokerBid(BrokerState state) {
+        state.bids.clear();
+        state.broker.bid(state.product, state.bids);
+        return state.bids.max(0);
+    }
+
+    /**
+     * Searches the winner among the clients of the broker and notifies him
+     */
+    @Benchmark
+    public String brokerNotifyWinner(BrokerState state) {
+        return state.broker.notifyWinner(state.biggestBid, state.product);
+    }
+
+    /**
+     * Searches a product of the catalog by its id
+     */
+    @Benchmark
+    public Product findProduct(HouseState house, LookupState lookup) throws UnknownProductException, InvalidProductRequest {
+        int id = lookup.ids[lookup.next];
+        lookup.next = (lookup.next + 1) & (lookup.ids.length - 1);
+        return house.crtHouse.findProduct(id, HouseState.MAX_PRICE);
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks.jmh;
+
+import clients.Client;
+import clients.LegalPerson;
+import clients.NaturalPerson;
+import helper.CompanyType;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import organisers.Administrator;
+import organisers.AuctionHouse;
+import organisers.Broker;
+import products.Product;
+
+import java.time.LocalDate;
+import java.util.logging.Logger;
+
+/**
+ * The auction house shared by the benchmarks, filled with a catalog and with clients
+ * of the sizes given as parameters. Half of the clients are natural persons, and the
+ * other half legal persons, so both ways of computing a bid are measured
+ */
+@State(Scope.Benchmark)
+public class HouseState {
+
+    //The minimum price of every product, smaller than the sums offered by the clients
+    static final double MIN_PRICE = 100;
+    static final double MAX_PRICE = 1_000_000;
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    @Param({"10", "100"})
+    public int clientCount;
+
+    @Param({"3", "10"})
+    public int noMaxSteps;
+
+    AuctionHouse crtHouse;
+    Client[] clients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //The auction logs are not relevant for the measurement
+        Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+
+        crtHouse = AuctionHouse.getInstance();
+        Administrator.resetAll();
+        for(int id = 0; id < catalogSize; id++) {
+            crtHouse.add(new Product(id, "product" + id, MIN_PRICE, 2000));
+        }
+
+        clients = new Client[clientCount];
+        for(int i = 0; i < clientCount; i++) {
+            Client c = i % 2 == 0
+                    ? new NaturalPerson(LocalDate.of(1950 + i % 50, 1, 1))
+                    : new LegalPerson(i % 4 == 1 ? CompanyType.SRL : CompanyType.SA, 1000.0 * i);
+            c.setName("client" + i);
+            c.setId(-1);
+            crtHouse.add(c);
+            clients[i] = c;
+        }
+        for(int i = 0; i < 3; i++) {
+            crtHouse.add(new Broker("broker" + i, i, 5));
+        }
+        crtHouse.add(Administrator.getInstance());
+    }
+
+    //The products sold during an iteration are dropped, so that the list does not grow during the trial
+    @TearDown(Level.Iteration)
+    public void dropSoldProducts() {
+        crtHouse.awaitAuctions();
+        crtHouse.getSoldProducts().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Administrator.resetAll();
+    }
+}
@@ -0,0 +1,146 @@
+package benchmarks.jmh;
+
+import benchmarks.WorkloadGenerator;
+import exceptions.JSONDataException;
+import exceptions.UnknownDataException;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import organisers.Administrator;
+import organisers.AuctionHouse;
+import readers.JSONReader;
+import readers.XLSXReader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * JMH benchmarks of the readers of the configuration and of the requests, run on the
+ * files of a test. The requests are read on top of the configuration of the same test,
+ * which is loaded again before every invocation, outside the measurement. The sequential
+ * and the parallel loader of the configuration are also compared on a generated workload,
+ * whose sections are split in many chunks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmarks {
+
+    /**
+     * The test whose files are read
+     */
+    @State(Scope.Thread)
+    public static class TestState {
+        @Param({"1", "10"})
+        public int testNumber;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            //The auction logs are not relevant for the measurement
+            Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            Administrator.resetAll();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            Administrator.resetAll();
+        }
+    }
+
+    /**
+     * The configuration of the test, loaded before every invocation
+     */
+    @State(Scope.Thread)
+    public static class ConfiguredState {
+        @Setup(Level.Invocation)
+        public void load(TestState test) throws IOException, ParseException, JSONDataException, UnknownDataException {
+            Administrator.resetAll();
+            JSONReader.readJSON(test.testNumber);
+        }
+    }
+
+    /**
+     * A generated configuration, much bigger than those of the tests, written once for the trial
+     */
+    @State(Scope.Thread)
+    public static class WorkloadState {
+        @Param({"false", "true"})
+        public boolean parallel;
+
+        @Param({"2000"})
+        public int productsPerType;
+
+        private Path folder;
+        private Path configuration;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Logger.getLogger("").setLevel(java.util.logging.Level.WARNING);
+            folder = Files.createTempDirectory("workload");
+            configuration = folder.resolve(WorkloadGenerator.CONFIGURATION);
+            new WorkloadGenerator().withProductsPerType(productsPerType).withNaturalClients(productsPerType)
+                    .withLegalClients(productsPerType).withAuctions(productsPerType).withRequests(1).generate(folder);
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            Administrator.resetAll();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Administrator.resetAll();
+            Files.deleteIfExists(configuration);
+            Files.deleteIfExists(folder.resolve(WorkloadGenerator.REQUESTS));
+            Files.deleteIfExists(folder);
+        }
+    }
+
+    /**
+     * Loads the configuration of the test
+     */
+    @Benchmark
+    public int readJSON(TestState test) throws IOException, ParseException, JSONDataException, UnknownDataException {
+        JSONReader.readJSON(test.testNumber);
+        return AuctionHouse.getInstance().getClients().size();
+    }
+
+    /**
+     * Loads the generated configuration, sequentially or in parallel
+     */
+    @Benchmark
+    public int readWorkload(WorkloadState workload) throws IOException, ParseException, JSONDataException, UnknownDataException {
+        JSONReader.readJSON(workload.configuration, workload.parallel);
+        return AuctionHouse.getInstance().getProducts().size();
+    }
+
+    /**
+     * Reads and signs up the requests of the test, and waits for the started auctions
+     */
+    @Benchmark
+    public int readXLSX(TestState test, ConfiguredState configuration) {
+        XLSXReader.readXLSX(test.testNumber);
+        AuctionHouse.getInstance().awaitAuctions();
+        return AuctionHouse.getInstance().getSoldProducts().size();
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks.jmh;
+
+import interfaces.BidReduction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import organisers.BidReductions;
+import organisers.Broker;
+import organisers.ScalarBidReduction;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing the scalar and the vector reductions over the bids of a step:
+ * the biggest bid, and the winner among equal bids. The forked JVMs add the module of the
+ * Vector API, so both implementations are measured on the same arrays
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ReductionBenchmarks {
+
+    /**
+     * The bids of a step with a number of participants, a tenth of them offering the
+     * biggest bid, so the tie is broken by the won auctions
+     */
+    @State(Scope.Thread)
+    public static class BidsState {
+        @Param({"16", "1000", "10000", "100000"})
+        public int participants;
+
+        double[] bids;
+        int[] noWonAuctions;
+        double biggestBid;
+        BidReduction scalar;
+        BidReduction vector;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            scalar = new ScalarBidReduction();
+            vector = BidReductions.vector();
+            if(vector == null) {
+                throw new IllegalStateException("The Vector API is not available");
+            }
+
+            Random random = new Random(42);
+            bids = new double[participants];
+            noWonAuctions = new int[participants];
+            biggestBid = 1000;
+            for(int row = 0; row < participants; row++) {
+                bids[row] = random.nextInt(10) == 0 ? biggestBid : random.nextInt(100000) / 100.0;
+                noWonAuctions[row] = random.nextInt(50);
+            }
+        }
+    }
+
+    @Benchmark
+    public double scalarMax(BidsState state) {
+        return state.scalar.max(state.bids, 0, state.participants);
+    }
+
+    @Benchmark
+    public double vectorMax(BidsState state) {
+        return state.vector.max(state.bids, 0, state.participants);
+    }
+
+    @Benchmark
+    public int scalarFindWinner(BidsState state) {
+        return state.scalar.findWinner(state.bids, state.noWonAuctions, state.participants, state.biggestBid, Broker.THRESHOLD);
+    }
+
+    @Benchmark
+    public int vectorFindWinner(BidsState state) {
+        return state.vector.findWinner(state.bids, state.noWonAuctions, state.participants, state.biggestBid, Broker.THRESHOLD);
+    }
+}
@@ -4,9 +4,11 @@ import exceptions.InvalidProductRequest;
 import exceptions.UnknownProductException;
 import interfaces.Observer;
 import multithreading.ReadTask;
+import multithreading.TaskExecutor;
 import org.apache.commons.math3.util.Pair;
 import org.apache.commons.math3.util.Precision;
 import organisers.AuctionHouse;
+import organisers.BidBuffer;
 import organisers.Information;
 import java.time.LocalDate;
 
@@ -23,6 +25,9 @@ public class Client implements Observer {
     private Information info;
     private double commission;
 
+    //The version of the catalog read last time, or -1 if the client did not read it yet
+    private long catalogVersion = -1;
+
     /**
      * Default constructor that initialises the information field
      */
@@ -77,24 +82,57 @@ public class Client implements Observer {
      */
     @Override
     public Pair<Double, Integer> bid() {
-        double crtMaxBid = info.getMaxAuctionBid();
-        double crtBid = info.getCrtBid();
-        double maxAffordableSum = info.getMaxAffordableBid();
+        return new Pair<>(computeBid(), noWonAuctions);
+    }
+
+    /**
+     * Adds the client's current bid and number of won auctions to a buffer of bids,
+     * without boxing them in a pair
+     * @param bids the buffer of the broker that requested the bid
+     */
+    @Override
+    public void bid(BidBuffer bids) {
+        bids.add(computeBid(), noWonAuctions);
+    }
 
+    //Calculates the current bid, based on the information communicated by the broker
+    private double computeBid() {
+        return computeBid(info.getMaxAuctionBid(), info.getCrtBid(), info.getMaxAffordableBid(), getBidFactor());
+    }
+
+    /**
+     * Calculates the bid of a client, used both by the client and by the bid book of
+     * the broker, which calculates the bids of all its clients at once
+     * @param crtMaxBid the biggest bid of the previous step
+     * @param crtBid the previous bid of the client
+     * @param maxAffordableSum the maximum sum the client can afford
+     * @param bidFactor the factor of the client, given by getBidFactor()
+     * @return the new bid, rounded to two decimals
+     */
+    public static double computeBid(double crtMaxBid, double crtBid, double maxAffordableSum, double bidFactor) {
         double newBid = crtMaxBid + crtBid / 10 + maxAffordableSum / 10;
 
-        //Recalculate the bid, based on the subclass of this client
+        //Recalculate the bid, based on the subclass of the client
+        newBid *= bidFactor;
+        if(newBid > maxAffordableSum)
+            newBid = maxAffordableSum;
+
+        return Precision.round(newBid, 2);
+    }
+
+    /**
+     * Gets the factor by which the client's bids are multiplied, based on the subclass of the client
+     * @return the factor of the bids
+     */
+    public double getBidFactor() {
         if(this instanceof NaturalPerson) {
             //More experienced clients will bid more
-            newBid *= (double)LocalDate.now().getYear() / ((NaturalPerson)this).getBirthDate().getYear();
+            return (double)LocalDate.now().getYear() / ((NaturalPerson)this).getBirthDate().getYear();
         } else if (this instanceof LegalPerson) {
             //Clients hired at better companies will bid more
-            newBid *= (1 + ((LegalPerson)this).getSocialCapital() / 10000);
+            return 1 + ((LegalPerson)this).getSocialCapital() / 10000;
         }
-        if(newBid > maxAffordableSum)
-            newBid = maxAffordableSum;
-
-        return new Pair<>(Precision.round(newBid, 2), noWonAuctions);
+        return 1;
     }
 
     /**
@@ -117,8 +155,7 @@ public class Client implements Observer {
      * @throws InvalidProductRequest if the client requests a product that costs more than he can offer
      */
     public void signUp(int id, double maxPrice) throws UnknownProductException, DuplicateRequestException, InvalidProductRequest {
-        Thread t = new Thread(read());
-        t.start();
+        TaskExecutor.getInstance().submit(read());
 
         AuctionHouse.getInstance().request(this, id, maxPrice);
     }
@@ -194,6 +231,14 @@ public class Client implements Observer {
         return noParticipation;
     }
 
+    /**
+     * Gets the client's number of won auctions
+     * @return the number of won auctions
+     */
+    public int getNoWonAuctions() {
+        return noWonAuctions;
+    }
+
     /**
      * Gets the client's commission estabilished by the broker
      * @return the client's commission
@@ -208,7 +253,15 @@ public class Client implements Observer {
      * @return a runnable object used for reading
      */
     public Runnable read() {
-        return new ReadTask();
+        return new ReadTask(this);
+    }
+
+    /**
+     * Reads the products changed since the last time the client read the catalog,
+     * or all the products on the first read
+     */
+    public synchronized void readCatalog() {
+        catalogVersion = AuctionHouse.getInstance().readProducts(catalogVersion);
     }
 
     /**
@@ -18,6 +18,14 @@ public class LegalPerson extends Client {
         this.socialCapital = socialCapital;
     }
 
+    /**
+     * Gets the type of the company
+     * @return the type of the company that employed the client
+     */
+    public CompanyType getCompany() {
+        return company;
+    }
+
     /**
      * Gets the social capital of the company
      * @return the social capital of the company that employed the client
@@ -0,0 +1,137 @@
+package events;
+import helper.AuctionEventType;
+import products.Product;
+
+/**
+ * An immutable event of an auction. The events are created by the auction house
+ * and formatted only by the sinks that need a text representation
+ */
+public class AuctionEvent {
+    private final AuctionEventType type;
+    private final int auctionNumber;
+    private final Product product;
+    private final int index;
+    private final double amount;
+    private final String winnerName;
+
+    /**
+     * Private constructor, the events are created by the static methods
+     */
+    private AuctionEvent(AuctionEventType type, int auctionNumber, Product product, int index,
+                         double amount, String winnerName) {
+        this.type = type;
+        this.auctionNumber = auctionNumber;
+        this.product = product;
+        this.index = index;
+        this.amount = amount;
+        this.winnerName = winnerName;
+    }
+
+    /**
+     * Creates the event for a started auction
+     * @param auctionNumber the number of the auction
+     * @param product the product of the auction
+     * @return the created event
+     */
+    public static AuctionEvent started(int auctionNumber, Product product) {
+        return new AuctionEvent(AuctionEventType.STARTED, auctionNumber, product, 0, 0, null);
+    }
+
+    /**
+     * Creates the event for the beginning of a bidding step
+     * @param auctionNumber the number of the auction
+     * @param product the product of the auction
+     * @param step the number of the step, starting from 0
+     * @return the created event
+     */
+    public static AuctionEvent step(int auctionNumber, Product product, int step) {
+        return new AuctionEvent(AuctionEventType.STEP, auctionNumber, product, step, 0, null);
+    }
+
+    /**
+     * Creates the event for a bid offered in the current step
+     * @param auctionNumber the number of the auction
+     * @param product the product of the auction
+     * @param bidNumber the number of the bid in the step, starting from 1
+     * @param amount the sum offered
+     * @return the created event
+     */
+    public static AuctionEvent bid(int auctionNumber, Product product, int bidNumber, double amount) {
+        return new AuctionEvent(AuctionEventType.BID, auctionNumber, product, bidNumber, amount, null);
+    }
+
+    /**
+     * Creates the event for a sold product
+     * @param auctionNumber the number of the auction
+     * @param product the sold product
+     * @param winnerName the name of the winner
+     * @param price the price paid by the winner
+     * @return the created event
+     */
+    public static AuctionEvent sold(int auctionNumber, Product product, String winnerName, double price) {
+        return new AuctionEvent(AuctionEventType.SOLD, auctionNumber, product, 0, price, winnerName);
+    }
+
+    /**
+     * Creates the event for a product that was not sold
+     * @param auctionNumber the number of the auction
+     * @param product the product of the auction
+     * @param biggestBid the biggest bid offered
+     * @return the created event
+     */
+    public static AuctionEvent notSold(int auctionNumber, Product product, double biggestBid) {
+        return new AuctionEvent(AuctionEventType.NOT_SOLD, auctionNumber, product, 0, biggestBid, null);
+    }
+
+    /**
+     * Creates the last event of an auction
+     * @param auctionNumber the number of the auction
+     * @param product the product of the auction
+     * @return the created event
+     */
+    public static AuctionEvent ended(int auctionNumber, Product product) {
+        return new AuctionEvent(AuctionEventType.ENDED, auctionNumber, product, 0, 0, null);
+    }
+
+    public AuctionEventType getType() {
+        return type;
+    }
+
+    public int getAuctionNumber() {
+        return auctionNumber;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    /**
+     * Gets the number of the step for a STEP event, or the number of the bid for a BID event
+     * @return the number of the step or of the bid
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the sum of the event: the bid, the selling price, or the biggest bid if the product was not sold
+     * @return the sum of the event
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    public String getWinnerName() {
+        return winnerName;
+    }
+
+    /**
+     * Converts the event to a string
+     * @return string concatenation of the event's fields
+     */
+    @Override
+    public String toString() {
+        return type + " auction=" + auctionNumber + " product=" + product.getId() + " index=" + index
+                + " amount=" + amount + (winnerName != null ? " winner=" + winnerName : "");
+    }
+}
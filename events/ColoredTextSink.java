@@ -0,0 +1,143 @@
+package events;
+import helper.AuctionEventType;
+import helper.Color;
+import interfaces.EventSink;
+import products.Product;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Formats the events of every auction as colored text for the terminal, and logs
+ * the text of an auction when the auction ends. Used by default by the auction house
+ */
+public class ColoredTextSink implements EventSink {
+
+    private final Logger logger;
+
+    //The text of the auctions in progress, by their number. Only used by the writer thread
+    private final Map<Integer, AuctionText> auctionTexts = new HashMap<>();
+
+    /**
+     * Creates a sink that logs the auctions through a specific logger
+     * @param logger the logger receiving the text of every auction
+     */
+    public ColoredTextSink(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * The text is formatted only if the logger accepts it
+     * @return true if the logger accepts informative messages
+     */
+    @Override
+    public boolean isEnabled() {
+        return logger.isLoggable(Level.INFO);
+    }
+
+    /**
+     * Appends the text of an event to the text of its auction
+     * @param event the published event
+     */
+    @Override
+    public void accept(AuctionEvent event) {
+        if(event.getType() == AuctionEventType.STARTED) {
+            AuctionText text = new AuctionText();
+            auctionTexts.put(event.getAuctionNumber(), text);
+            appendAuctionInfo(text.sb, event.getAuctionNumber(), event.getProduct());
+            return;
+        }
+
+        AuctionText text = auctionTexts.get(event.getAuctionNumber());
+        if(text == null) {
+            //The sink was added after the auction started
+            return;
+        }
+        StringBuilder sb = text.sb;
+        switch(event.getType()) {
+            case STEP:
+                text.endStep();
+                text.stepOpen = true;
+                sb.append(Color.CYAN + "\t\tStep ").append(event.getIndex()).append(":").append(Color.RESET).append("\n");
+                break;
+            case BID:
+                sb.append(Color.BLUE + "\t\t\tBid ").append(event.getIndex()).append(": ").append(event.getAmount())
+                        .append("$").append(Color.RESET).append("\n");
+                break;
+            case SOLD:
+                text.endStep();
+                sb.append(soldMessage(event.getProduct(), event.getWinnerName(), event.getAmount()));
+                break;
+            case NOT_SOLD:
+                text.endStep();
+                appendNotSoldMessage(sb, event.getProduct(), event.getAmount());
+                break;
+            case ENDED:
+                text.endStep();
+                auctionTexts.remove(event.getAuctionNumber());
+                logger.log(Level.INFO, sb.toString());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Builds the message for a product sold to a client
+     * @param product the sold product
+     * @param winnerName the name of the client
+     * @param price the selling price
+     * @return the colored message
+     */
+    public static String soldMessage(Product product, String winnerName, double price) {
+        String productType = Product.getType(product);
+        return "\t" + Color.PURPLE + productType + " \"" + product.getName() + "\" has been sold to "
+                + winnerName + " for " + price + " dollars." + Color.RESET + "\n";
+    }
+
+    //Appends the information about the auction number and the product's worth to the string builder
+    private static void appendAuctionInfo(StringBuilder sb, int auctionNumber, Product product) {
+        sb.append("Auction ")
+                .append(auctionNumber)
+                .append("\n")
+                .append("\t" + Color.PURPLE + "Auction for ")
+                .append(product.getName())
+                .append(" worth ")
+                .append(product.getMinPrice())
+                .append("$:").append(Color.RESET)
+                .append("\n");
+    }
+
+    //Appends the message about the minimum selling price and the biggest bid for this product to the string builder
+    private static void appendNotSoldMessage(StringBuilder sb, Product product, double biggestBid) {
+        String productType = Product.getType(product);
+        sb.append("\t" + Color.PURPLE)
+                .append(productType).append(" ")
+                .append(product.getName())
+                .append(" was not sold! Biggest bid: ")
+                .append(biggestBid)
+                .append("$, Min sell price: ")
+                .append(product.getMinPrice())
+                .append("$.\n")
+                .append(Color.RESET);
+    }
+
+    /**
+     * The text of an auction in progress
+     */
+    private static class AuctionText {
+        final StringBuilder sb = new StringBuilder();
+
+        //True if the bids of a step are being appended
+        boolean stepOpen;
+
+        //Every step is followed by an empty line
+        void endStep() {
+            if(stepOpen) {
+                sb.append("\n");
+                stepOpen = false;
+            }
+        }
+    }
+}
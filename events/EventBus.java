@@ -0,0 +1,159 @@
+package events;
+import interfaces.EventSink;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hands the events of the auctions to the sinks, through a bounded queue emptied by
+ * a background writer. The auctions only wait for the writer when the queue is full
+ */
+public class EventBus {
+
+    private static final int DEFAULT_CAPACITY = 8192;
+
+    private final Logger logger = Logger.getLogger(EventBus.class.getName());
+    private final BlockingQueue<AuctionEvent> queue;
+    private final List<EventSink> sinks = new CopyOnWriteArrayList<>();
+
+    //The number of events published, and the number of events given to the sinks
+    private final AtomicLong published = new AtomicLong();
+    private long written;
+
+    private final Thread writer;
+
+    //Set when the bus is shut down, the events published afterwards are ignored
+    private volatile boolean closed;
+
+    /**
+     * Creates a bus with a queue of default capacity
+     */
+    public EventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a bus and starts its writer
+     * @param capacity the maximum number of events waiting to be written
+     */
+    public EventBus(int capacity) {
+        queue = new ArrayBlockingQueue<>(capacity);
+        writer = new Thread(this::writeEvents, "auction-events");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Adds a sink, which receives the events published from now on
+     * @param sink the added sink
+     */
+    public void addSink(EventSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Removes a sink, after the events already published are written
+     * @param sink the removed sink
+     */
+    public void removeSink(EventSink sink) {
+        flush();
+        sinks.remove(sink);
+    }
+
+    /**
+     * Tells if any sink wants the events. Checked once for every auction, so that
+     * no event is created when nobody uses them
+     * @return true if the events should be published
+     */
+    public boolean isEnabled() {
+        if(closed) {
+            return false;
+        }
+        for(EventSink sink : sinks) {
+            if(sink.isEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Publishes an event, waiting only if the queue is full
+     * @param event the published event
+     */
+    public void publish(AuctionEvent event) {
+        if(closed) {
+            return;
+        }
+        published.incrementAndGet();
+        try {
+            queue.put(event);
+        } catch(InterruptedException e) {
+            //The event is dropped, but counted as written, so that flush does not wait for it
+            eventWritten();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until all the events published so far are given to the sinks, then flushes the sinks
+     */
+    public void flush() {
+        if(Thread.currentThread() == writer) {
+            return;
+        }
+
+        long target = published.get();
+        synchronized(this) {
+            try {
+                while(written < target) {
+                    wait();
+                }
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        sinks.forEach(EventSink::flush);
+    }
+
+    /**
+     * Writes the events published so far, then stops the writer
+     */
+    public void shutdown() {
+        flush();
+        closed = true;
+        writer.interrupt();
+    }
+
+    //Gives every event to the sinks, in the order they were published
+    private void writeEvents() {
+        while(true) {
+            AuctionEvent event;
+            try {
+                event = queue.take();
+            } catch(InterruptedException e) {
+                return;
+            }
+
+            for(EventSink sink : sinks) {
+                try {
+                    sink.accept(event);
+                } catch(RuntimeException e) {
+                    //A failing sink must not stop the others
+                    logger.log(Level.WARNING, "Event sink failed", e);
+                }
+            }
+            eventWritten();
+        }
+    }
+
+    private synchronized void eventWritten() {
+        written++;
+        notifyAll();
+    }
+}
@@ -0,0 +1,19 @@
+package helper;
+
+/**
+ * Enum for the events that happen during an auction
+ */
+public enum AuctionEventType {
+    //The auction is started
+    STARTED,
+    //A new bidding step begins
+    STEP,
+    //A participant offered a bid in the current step
+    BID,
+    //The product was sold to a participant
+    SOLD,
+    //The biggest bid was smaller than the minimum price of the product
+    NOT_SOLD,
+    //All the events of the auction were published
+    ENDED
+}
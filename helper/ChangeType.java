@@ -0,0 +1,13 @@
+package helper;
+
+/**
+ * Enum for the possible changes of the catalog
+ */
+public enum ChangeType {
+    //A product was added
+    ADDED,
+    //A product was deleted
+    REMOVED,
+    //All the products were removed by a reset
+    CLEARED
+}
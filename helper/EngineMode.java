@@ -0,0 +1,11 @@
+package helper;
+
+/**
+ * Enum for the possible ways of running the auctions that are ready to start
+ */
+public enum EngineMode {
+    //Every auction is run by the thread that completed it
+    SEQUENTIAL,
+    //The auctions are run by a pool of worker threads, independent products in parallel
+    POOLED
+}
@@ -0,0 +1,231 @@
+package helper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hash map with primitive int keys, based on open addressing with linear probing.
+ * It is used for indexing objects by their identifier without boxing the keys.
+ * Null values are not permitted, since an empty slot is marked by a null value.
+ * The class is not thread safe, the callers are responsible for the synchronization
+ * @param <V> the type of the values kept in the map
+ */
+public class IntHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    //The keys and the values are kept in two parallel arrays
+    private int[] keys;
+    private Object[] values;
+
+    private int size;
+    private int mask;
+
+    /**
+     * Creates an empty map with the default capacity
+     */
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that can hold the expected number of entries without resizing
+     * @param expectedSize the number of entries expected to be added
+     */
+    public IntHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while(capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Gets the value associated with a key
+     * @param key the searched key
+     * @return the value of the key, or null if the key is not present
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = indexOf(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * Checks whether the map contains the specified key
+     * @param key the searched key
+     * @return true if the key is present
+     */
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Associates a value with a key, replacing the old value
+     * @param key the key of the entry
+     * @param value the value of the entry, must not be null
+     * @return the previous value, or null if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if(value == null) {
+            throw new IllegalArgumentException("Null values are not permitted");
+        }
+
+        int slot = hash(key) & mask;
+        while(values[slot] != null) {
+            if(keys[slot] == key) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        //Keep the load factor under one half, so that the probe sequences stay short
+        if(++size * 2 > values.length) {
+            rehash(values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Associates a value with a key only if the key is not already present
+     * @param key the key of the entry
+     * @param value the value of the entry, must not be null
+     * @return the current value of the key, or null if the value was added
+     */
+    public V putIfAbsent(int key, V value) {
+        V crtValue = get(key);
+        if(crtValue != null) {
+            return crtValue;
+        }
+        put(key, value);
+        return null;
+    }
+
+    /**
+     * Removes the entry with the specified key
+     * @param key the key to be removed
+     * @return the removed value, or null if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = indexOf(key);
+        if(slot < 0) {
+            return null;
+        }
+
+        V old = (V) values[slot];
+        values[slot] = null;
+        size--;
+
+        /* Shift back the entries that follow in the same probe sequence, instead of
+        leaving a tombstone in the table */
+        int hole = slot;
+        int crt = (slot + 1) & mask;
+        while(values[crt] != null) {
+            int ideal = hash(keys[crt]) & mask;
+            if(((crt - ideal) & mask) >= ((crt - hole) & mask)) {
+                keys[hole] = keys[crt];
+                values[hole] = values[crt];
+                values[crt] = null;
+                hole = crt;
+            }
+            crt = (crt + 1) & mask;
+        }
+        return old;
+    }
+
+    /**
+     * Removes all the entries of the map
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Gets the number of entries
+     * @return the size of the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map has no entries
+     * @return true if the map is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Performs an action for every value of the map
+     * @param action the action to be performed
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super V> action) {
+        for(Object value : values) {
+            if(value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    /**
+     * Copies the values of the map in a new list
+     * @return a list with all the values
+     */
+    public List<V> values() {
+        List<V> list = new ArrayList<>(size);
+        forEach(list::add);
+        return list;
+    }
+
+    //Searches the slot of a key, returning -1 if the key is not found
+    private int indexOf(int key) {
+        int slot = hash(key) & mask;
+        while(values[slot] != null) {
+            if(keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    //Spreads the bits of the key, because ids are usually consecutive numbers
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    //Moves all the entries in a bigger table
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+
+        for(int i = 0; i < oldValues.length; i++) {
+            if(oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while(values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package helper;
+import java.util.Arrays;
+
+/**
+ * Hash set of primitive long values, based on open addressing with linear probing.
+ * The value 0 marks an empty slot, so it is kept separately by a flag. The class
+ * is not thread safe, the callers are responsible for the synchronization
+ */
+public class LongHashSet {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] table;
+    private boolean containsZero;
+    private int size;
+    private int mask;
+
+    /**
+     * Creates an empty set with the default capacity
+     */
+    public LongHashSet() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Adds a value in the set
+     * @param value the value to be added
+     * @return true if the value was not already present
+     */
+    public boolean add(long value) {
+        if(value == 0) {
+            if(containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = hash(value) & mask;
+        while(table[slot] != 0) {
+            if(table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = value;
+        //Keep the load factor under one half, so that the probe sequences stay short
+        if(++size * 2 > table.length) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the set contains a value
+     * @param value the searched value
+     * @return true if the value is present
+     */
+    public boolean contains(long value) {
+        if(value == 0) {
+            return containsZero;
+        }
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Removes a value from the set
+     * @param value the value to be removed
+     * @return true if the value was present
+     */
+    public boolean remove(long value) {
+        if(value == 0) {
+            if(!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int slot = indexOf(value);
+        if(slot < 0) {
+            return false;
+        }
+        table[slot] = 0;
+        size--;
+
+        //Shift back the values that follow in the same probe sequence
+        int hole = slot;
+        int crt = (slot + 1) & mask;
+        while(table[crt] != 0) {
+            int ideal = hash(table[crt]) & mask;
+            if(((crt - ideal) & mask) >= ((crt - hole) & mask)) {
+                table[hole] = table[crt];
+                table[crt] = 0;
+                hole = crt;
+            }
+            crt = (crt + 1) & mask;
+        }
+        return true;
+    }
+
+    /**
+     * Removes all the values of the set
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * Gets the number of values in the set
+     * @return the size of the set
+     */
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(long value) {
+        int slot = hash(value) & mask;
+        while(table[slot] != 0) {
+            if(table[slot] == value) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    //Mixes the bits of both halves of the value
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldTable = table;
+        allocate(capacity);
+
+        for(long value : oldTable) {
+            if(value != 0) {
+                int slot = hash(value) & mask;
+                while(table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+}
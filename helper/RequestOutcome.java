@@ -0,0 +1,19 @@
+package helper;
+
+/**
+ * Enum for the outcome of a request sent in a batch
+ */
+public enum RequestOutcome {
+    //The client was signed up for the product
+    ACCEPTED,
+    //The client was signed up, and his request completed an auction, started at the end of the batch
+    AUCTION_READY,
+    //The client is not registered in the auction house
+    UNKNOWN_CLIENT,
+    //The product is not available
+    UNKNOWN_PRODUCT,
+    //The sum offered is smaller than the minimum price of the product
+    INVALID_PRICE,
+    //The client already requested the same product
+    DUPLICATE
+}
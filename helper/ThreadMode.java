@@ -0,0 +1,13 @@
+package helper;
+
+/**
+ * Enum for the possible ways of running the add, delete and read tasks
+ */
+public enum ThreadMode {
+    //A new platform thread is started for every task
+    THREAD_PER_TASK,
+    //The tasks are run by a bounded pool of platform threads
+    PLATFORM_POOL,
+    //A new virtual thread is started for every task, if the runtime supports them
+    VIRTUAL
+}
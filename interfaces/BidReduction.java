@@ -0,0 +1,30 @@
+package interfaces;
+
+/**
+ * The reductions computed over the bids of a step: the biggest bid, and the row of the
+ * winner. The bids are kept in primitive arrays, so an implementation may process
+ * several rows at once
+ */
+public interface BidReduction {
+
+    /**
+     * Gets the biggest of a range of bids
+     * @param amounts the bids
+     * @param from the position of the first bid considered
+     * @param to the position after the last bid considered
+     * @return the biggest bid, or 0 if the range is empty or all its bids are smaller
+     */
+    double max(double[] amounts, int from, int to);
+
+    /**
+     * Searches the row that offered the winning bid. If more rows offered it, the one with the
+     * most won auctions is chosen, and among those the first one
+     * @param bids the bid of every row
+     * @param noWonAuctions the number of auctions won by the bidder of every row
+     * @param length the number of rows
+     * @param bid the winning bid
+     * @param threshold the maximum difference between two equal bids
+     * @return the row of the winner, or -1 if no row offered the bid
+     */
+    int findWinner(double[] bids, int[] noWonAuctions, int length, double bid, double threshold);
+}
@@ -0,0 +1,29 @@
+package interfaces;
+import events.AuctionEvent;
+
+/**
+ * A destination for the events of the auctions, which receives them
+ * from the background writer of the event bus
+ */
+public interface EventSink {
+
+    /**
+     * Tells if the sink currently wants to receive events. If no sink wants
+     * them, the auctions do not publish events at all
+     * @return true if the events are used by the sink
+     */
+    boolean isEnabled();
+
+    /**
+     * Receives an event. The events of an auction are received in the order
+     * they were published, always by the same thread
+     * @param event the published event
+     */
+    void accept(AuctionEvent event);
+
+    /**
+     * Writes the events kept by the sink, if any
+     */
+    default void flush() {
+    }
+}
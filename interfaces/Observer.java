@@ -1,5 +1,6 @@
 package interfaces;
 import org.apache.commons.math3.util.Pair;
+import organisers.BidBuffer;
 import organisers.Information;
 
 /**
@@ -28,6 +29,17 @@ public interface Observer {
      */
     Pair<Double, Integer> bid();
 
+    /**
+     * Bidding without creating any object, the bid being added at the end of a buffer
+     * owned by the caller. By default, the bid is taken from the pair returned by bid()
+     * @param bids the buffer in which the current bid and the current number
+     * of won auctions are added
+     */
+    default void bid(BidBuffer bids) {
+        Pair<Double, Integer> crtBid = bid();
+        bids.add(crtBid.getFirst(), crtBid.getSecond());
+    }
+
     /**
      * A getter for an observer's information, used by the subject
      * to better perform in the auction process
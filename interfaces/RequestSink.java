@@ -0,0 +1,22 @@
+package interfaces;
+
+/**
+ * A destination for the requests read from a request file, which receives
+ * them in the order of the file
+ */
+public interface RequestSink {
+
+    /**
+     * Receives a request
+     * @param clientId the id of the client
+     * @param productId the id of the demanded product
+     * @param maxSum the maximum sum the client is willing to offer
+     */
+    void accept(int clientId, int productId, int maxSum);
+
+    /**
+     * Called after the last request of the file
+     */
+    default void end() {
+    }
+}
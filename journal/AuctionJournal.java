@@ -0,0 +1,220 @@
+package journal;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only journal of the auction outcomes, written through a memory-mapped file.
+ * The records have a fixed size and end with a checksum, so a record torn by a crash is
+ * recognised as the end of the journal. The mapped pages are forced to the disk once
+ * for every batch of records, and when the journal is flushed or closed
+ */
+public class AuctionJournal implements Closeable {
+
+    //"AJNL", followed by the version of the format
+    private static final int MAGIC = 0x414A4E4C;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    //Four ints, two doubles and the checksum
+    static final int RECORD_SIZE = 40;
+
+    //The mapping grows by this many records at a time
+    private static final int RECORDS_PER_REGION = 16384;
+
+    //The mapped pages are forced to the disk after this many records
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final FileChannel channel;
+    private final int batchSize;
+    private MappedByteBuffer buffer;
+
+    //The offset of the next record, and the number of records not forced yet
+    private int position;
+    private int unforced;
+
+    /**
+     * Private constructor, the journals are opened by the static methods
+     */
+    private AuctionJournal(FileChannel channel, int batchSize) throws IOException {
+        this.channel = channel;
+        this.batchSize = batchSize;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, regionSize(channel.size()));
+
+        if(channel.size() == 0 || buffer.getInt(0) == 0) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+        } else {
+            checkHeader(buffer.getInt(0), buffer.getInt(4));
+        }
+
+        //New records are appended after the last valid one
+        position = HEADER_SIZE;
+        while(position + RECORD_SIZE <= buffer.capacity() && readRecord(buffer, position) != null) {
+            position += RECORD_SIZE;
+        }
+    }
+
+    /**
+     * Opens a journal, creating the file if it does not exist
+     * @param path the file of the journal
+     * @return the opened journal, positioned after its last record
+     * @throws IOException if the file can not be opened or is not a journal
+     */
+    public static AuctionJournal open(Path path) throws IOException {
+        return open(path, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Opens a journal, creating the file if it does not exist
+     * @param path the file of the journal
+     * @param batchSize the number of records written before the pages are forced to the disk
+     * @return the opened journal, positioned after its last record
+     * @throws IOException if the file can not be opened or is not a journal
+     */
+    public static AuctionJournal open(Path path, int batchSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new AuctionJournal(channel, Math.max(1, batchSize));
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends the outcome of an auction
+     * @param record the outcome of the auction
+     */
+    public synchronized void append(JournalRecord record) {
+        if(position + RECORD_SIZE > buffer.capacity()) {
+            grow();
+        }
+
+        int offset = position;
+        buffer.putInt(offset, record.getAuctionNumber());
+        buffer.putInt(offset + 4, record.getProductId());
+        buffer.putInt(offset + 8, record.getWinnerId());
+        buffer.putInt(offset + 12, record.getBrokerIndex());
+        buffer.putDouble(offset + 16, record.getPrice());
+        buffer.putDouble(offset + 24, record.getCommission());
+        //The checksum is written last, so that a record is valid only when it is complete
+        buffer.putLong(offset + 32, checksum(record));
+        position += RECORD_SIZE;
+
+        if(++unforced >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Forces the records written so far to the disk
+     */
+    public synchronized void flush() {
+        if(unforced > 0) {
+            buffer.force();
+            unforced = 0;
+        }
+    }
+
+    /**
+     * Gets the number of records in the journal
+     * @return the number of records
+     */
+    public synchronized int size() {
+        return (position - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    /**
+     * Forces the remaining records to the disk and closes the file
+     * @throws IOException if the file can not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    /**
+     * Reads all the valid records of a journal, stopping at the first incomplete one
+     * @param path the file of the journal
+     * @return the records, in the order they were appended
+     * @throws IOException if the file can not be read or is not a journal
+     */
+    public static List<JournalRecord> read(Path path) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        if(!Files.exists(path)) {
+            return records;
+        }
+
+        try(FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = readChannel.size();
+            if(size < HEADER_SIZE) {
+                return records;
+            }
+            MappedByteBuffer readBuffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            checkHeader(readBuffer.getInt(0), readBuffer.getInt(4));
+
+            for(int offset = HEADER_SIZE; offset + RECORD_SIZE <= size; offset += RECORD_SIZE) {
+                JournalRecord record = readRecord(readBuffer, offset);
+                if(record == null) {
+                    break;
+                }
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    //Maps a bigger part of the file, after forcing the records of the current mapping
+    private void grow() {
+        try {
+            buffer.force();
+            unforced = 0;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, buffer.capacity() + (long)RECORDS_PER_REGION * RECORD_SIZE);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //The mapped size for an existing file: its size, rounded up to a whole region
+    private static long regionSize(long fileSize) {
+        long region = (long)RECORDS_PER_REGION * RECORD_SIZE;
+        long records = Math.max(0, fileSize - HEADER_SIZE);
+        return HEADER_SIZE + (records + region - 1) / region * region + (records == 0 ? region : 0);
+    }
+
+    private static void checkHeader(int magic, int version) throws IOException {
+        if(magic != MAGIC || version != VERSION) {
+            throw new IOException("The file is not an auction journal of version " + VERSION);
+        }
+    }
+
+    //Reads the record at an offset, or returns null if it is missing or incomplete
+    private static JournalRecord readRecord(MappedByteBuffer source, int offset) {
+        JournalRecord record = new JournalRecord(source.getInt(offset), source.getInt(offset + 4),
+                source.getInt(offset + 8), source.getInt(offset + 12),
+                source.getDouble(offset + 16), source.getDouble(offset + 24));
+        return source.getLong(offset + 32) == checksum(record) ? record : null;
+    }
+
+    //The seed makes the checksum of an empty record different from 0
+    private static long checksum(JournalRecord record) {
+        long hash = 0x9E3779B97F4A7C15L;
+        hash = hash * 31 + record.getAuctionNumber();
+        hash = hash * 31 + record.getProductId();
+        hash = hash * 31 + record.getWinnerId();
+        hash = hash * 31 + record.getBrokerIndex();
+        hash = hash * 31 + Double.doubleToLongBits(record.getPrice());
+        hash = hash * 31 + Double.doubleToLongBits(record.getCommission());
+        return hash;
+    }
+}
@@ -0,0 +1,66 @@
+package journal;
+
+/**
+ * The outcome of an auction that sold its product, as written in the journal
+ */
+public class JournalRecord {
+    private final int auctionNumber;
+    private final int productId;
+    private final int winnerId;
+    private final int brokerIndex;
+    private final double price;
+    private final double commission;
+
+    /**
+     * Creates the record of a sold product
+     * @param auctionNumber the number of the auction
+     * @param productId the id of the sold product
+     * @param winnerId the id of the client who won the auction, or -1 if the winner is not a client
+     * @param brokerIndex the position of the winner's broker among the brokers of the house
+     * @param price the selling price
+     * @param commission the commission of the winner, taken by the broker
+     */
+    public JournalRecord(int auctionNumber, int productId, int winnerId, int brokerIndex,
+                         double price, double commission) {
+        this.auctionNumber = auctionNumber;
+        this.productId = productId;
+        this.winnerId = winnerId;
+        this.brokerIndex = brokerIndex;
+        this.price = price;
+        this.commission = commission;
+    }
+
+    public int getAuctionNumber() {
+        return auctionNumber;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getWinnerId() {
+        return winnerId;
+    }
+
+    public int getBrokerIndex() {
+        return brokerIndex;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public double getCommission() {
+        return commission;
+    }
+
+    /**
+     * Converts the record to a string
+     * @return string concatenation of the record's fields
+     */
+    @Override
+    public String toString() {
+        return "auction=" + auctionNumber + ", product=" + productId + ", winner=" + winnerId
+                + ", broker=" + brokerIndex + ", price=" + price + ", commission=" + commission;
+    }
+}
@@ -0,0 +1,73 @@
+package journal;
+import exceptions.JSONDataException;
+import exceptions.UnknownDataException;
+import org.json.simple.parser.ParseException;
+import organisers.AuctionHouse;
+import organisers.Broker;
+import products.Product;
+import readers.JSONReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Rebuilds the results of the auctions from a journal, without running the auctions again.
+ * The products, clients and brokers must be loaded before, in the same order as when
+ * the journal was written
+ */
+public class JournalReplay {
+
+    /**
+     * Private constructor for hiding the default one
+     */
+    private JournalReplay() {
+    }
+
+    /**
+     * Applies every outcome of a journal to the auction house: the sold products,
+     * the cash of the brokers and the won auctions of the clients
+     * @param path the file of the journal
+     * @param crtHouse the auction house, with its products, clients and brokers loaded
+     * @return the number of replayed outcomes
+     * @throws IOException if the journal can not be read
+     */
+    public static int replay(Path path, AuctionHouse crtHouse) throws IOException {
+        List<JournalRecord> records = AuctionJournal.read(path);
+        for(JournalRecord record : records) {
+            crtHouse.restoreOutcome(record.getProductId(), record.getWinnerId(), record.getBrokerIndex(),
+                    record.getPrice(), record.getCommission());
+        }
+        return records.size();
+    }
+
+    /**
+     * Loads the configuration of a test, replays a journal over it and prints the results
+     * @param args the file of the journal, optionally followed by the number of the test
+     */
+    public static void main(String[] args) throws IOException, ParseException, UnknownDataException, JSONDataException {
+        if(args.length == 0) {
+            System.out.println("Usage: JournalReplay <journal file> [test number]");
+            return;
+        }
+
+        if(args.length > 1) {
+            JSONReader.readJSON(Integer.parseInt(args[1]));
+        } else {
+            JSONReader.readJSON();
+        }
+
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        long start = System.nanoTime();
+        int replayed = replay(Paths.get(args[0]), crtHouse);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("Replayed %d outcomes in %.2f ms%n", replayed, elapsed / 1e6);
+        for(Product p : crtHouse.getSoldProducts()) {
+            System.out.println("Sold: " + p.getName() + " for " + p.getSellPrice());
+        }
+        for(Broker br : crtHouse.getBrokers()) {
+            System.out.println("Broker " + br.getName() + ": " + br.getNoWonAuctions() + " won auctions, cash " + br.getCash());
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package metrics;
+import helper.RequestOutcome;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The registry of the metrics of the auction house, based on the Singleton Design Pattern.
+ * The counters are LongAdders and the latencies are kept in histograms of fixed size, so
+ * the threads of the auctions never contend on a lock and never allocate while recording.
+ * The metrics are read through JMX or as a plain text dump
+ */
+public class AuctionMetrics implements AuctionMetricsMBean {
+
+    //Created eagerly, because it is read by the auction threads from the start
+    private static final AuctionMetrics INSTANCE = new AuctionMetrics();
+
+    //The domain of the published beans
+    private static final String DOMAIN = "auction";
+
+    private final Logger logger = Logger.getLogger(AuctionMetrics.class.getName());
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder[] rejected = new LongAdder[RequestOutcome.values().length];
+    private final LongAdder auctionsStarted = new LongAdder();
+    private final LongAdder auctionsSold = new LongAdder();
+    private final LongAdder auctionsUnsold = new LongAdder();
+    private final LongAdder bids = new LongAdder();
+    private final LongAdder auctionsEndedEarly = new LongAdder();
+    private final LongAdder stepsSaved = new LongAdder();
+
+    //The latencies in nanoseconds, and the number of bids of every step
+    private final Histogram signUpLatency = new Histogram();
+    private final Histogram batchLatency = new Histogram();
+    private final Histogram auctionLatency = new Histogram();
+    private final Histogram stepLatency = new Histogram();
+    private final Histogram winnerLatency = new Histogram();
+    private final Histogram stepBids = new Histogram();
+
+    //The moment the counters were reset, used for the request rate
+    private volatile long resetTime = System.nanoTime();
+
+    /**
+     * Private constructor for preventing instantiation
+     */
+    private AuctionMetrics() {
+        for(int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the unique instance of the registry
+     * @return the metrics of the auction house
+     */
+    public static AuctionMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Counts the received requests
+     * @param noRequests the number of requests
+     */
+    public void countRequests(int noRequests) {
+        requests.add(noRequests);
+    }
+
+    /**
+     * Counts a request, if it was rejected
+     * @param outcome the outcome of the request
+     */
+    public void countOutcome(RequestOutcome outcome) {
+        if(outcome != RequestOutcome.ACCEPTED && outcome != RequestOutcome.AUCTION_READY) {
+            rejected[outcome.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Counts a started auction
+     */
+    public void countAuctionStarted() {
+        auctionsStarted.increment();
+    }
+
+    /**
+     * Counts a finished auction
+     * @param sold true if the product was sold
+     */
+    public void countAuctionEnded(boolean sold) {
+        if(sold) {
+            auctionsSold.increment();
+        } else {
+            auctionsUnsold.increment();
+        }
+    }
+
+    /**
+     * Records a bidding step
+     * @param latency the duration of the step, in nanoseconds
+     * @param noBids the number of bids received in the step
+     */
+    public void recordStep(long latency, int noBids) {
+        stepLatency.record(latency);
+        stepBids.record(noBids);
+        bids.add(noBids);
+    }
+
+    /**
+     * Counts an auction whose bidding ended before its last step, because its outcome was already fixed
+     * @param noStepsSaved the number of steps that were not run
+     */
+    public void countEndedEarly(int noStepsSaved) {
+        auctionsEndedEarly.increment();
+        stepsSaved.add(noStepsSaved);
+    }
+
+    /**
+     * Gets the latency of the accepted sign ups, from the request, or from the start of its row
+     * in a batch, until the client is registered for the auction
+     * @return the histogram of the latencies, in nanoseconds
+     */
+    public Histogram getSignUpLatency() {
+        return signUpLatency;
+    }
+
+    /**
+     * Gets the duration of the batches of requests, from the moment a batch is received until
+     * its ready auctions are handed to the auction engine
+     * @return the histogram of the durations, in nanoseconds
+     */
+    public Histogram getBatchLatency() {
+        return batchLatency;
+    }
+
+    /**
+     * Gets the duration of the auctions, from the start of the brokers until the brokers are reset
+     * @return the histogram of the durations, in nanoseconds
+     */
+    public Histogram getAuctionLatency() {
+        return auctionLatency;
+    }
+
+    /**
+     * Gets the duration of the bidding steps
+     * @return the histogram of the durations, in nanoseconds
+     */
+    public Histogram getStepLatency() {
+        return stepLatency;
+    }
+
+    /**
+     * Gets the time a broker needs for finding the winner among its clients
+     * @return the histogram of the durations, in nanoseconds
+     */
+    public Histogram getWinnerLatency() {
+        return winnerLatency;
+    }
+
+    /**
+     * Gets the number of bids received in every step
+     * @return the histogram of the number of bids
+     */
+    public Histogram getStepBids() {
+        return stepBids;
+    }
+
+    @Override
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    @Override
+    public double getRequestsPerSecond() {
+        double seconds = (System.nanoTime() - resetTime) / 1e9;
+        return seconds <= 0 ? 0 : requests.sum() / seconds;
+    }
+
+    /**
+     * Gets the number of requests rejected for a reason
+     * @param outcome the reason of the rejection
+     * @return the number of rejected requests, 0 for the accepted outcomes
+     */
+    public long getRejected(RequestOutcome outcome) {
+        return rejected[outcome.ordinal()].sum();
+    }
+
+    @Override
+    public long getRejectedUnknownClient() {
+        return getRejected(RequestOutcome.UNKNOWN_CLIENT);
+    }
+
+    @Override
+    public long getRejectedUnknownProduct() {
+        return getRejected(RequestOutcome.UNKNOWN_PRODUCT);
+    }
+
+    @Override
+    public long getRejectedInvalidPrice() {
+        return getRejected(RequestOutcome.INVALID_PRICE);
+    }
+
+    @Override
+    public long getRejectedDuplicate() {
+        return getRejected(RequestOutcome.DUPLICATE);
+    }
+
+    @Override
+    public long getAuctionsStarted() {
+        return auctionsStarted.sum();
+    }
+
+    @Override
+    public long getAuctionsSold() {
+        return auctionsSold.sum();
+    }
+
+    @Override
+    public long getAuctionsUnsold() {
+        return auctionsUnsold.sum();
+    }
+
+    @Override
+    public long getBids() {
+        return bids.sum();
+    }
+
+    @Override
+    public long getAuctionsEndedEarly() {
+        return auctionsEndedEarly.sum();
+    }
+
+    @Override
+    public long getStepsSaved() {
+        return stepsSaved.sum();
+    }
+
+    @Override
+    public void reset() {
+        requests.reset();
+        for(LongAdder counter : rejected) {
+            counter.reset();
+        }
+        auctionsStarted.reset();
+        auctionsSold.reset();
+        auctionsUnsold.reset();
+        bids.reset();
+        auctionsEndedEarly.reset();
+        stepsSaved.reset();
+        histograms().values().forEach(Histogram::reset);
+        resetTime = System.nanoTime();
+    }
+
+    /**
+     * Publishes the counters and the histograms as beans of the platform MBean server,
+     * unless they are already published
+     */
+    public void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=AuctionMetrics");
+            if(!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+            for(Map.Entry<String, Histogram> entry : histograms().entrySet()) {
+                name = new ObjectName(DOMAIN + ":type=Histogram,name=" + entry.getKey());
+                if(!server.isRegistered(name)) {
+                    server.registerMBean(entry.getValue(), name);
+                }
+            }
+        } catch(JMException e) {
+            logger.log(Level.WARNING, "The auction metrics could not be published", e);
+        }
+    }
+
+    /**
+     * Writes all the metrics as plain text, one value per line, in the exposition format
+     * read by Prometheus
+     * @return the text of the metrics
+     */
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        line(out, "auction_requests_total", getRequests());
+        out.append(String.format(Locale.ROOT, "auction_requests_per_second %.2f%n", getRequestsPerSecond()));
+        for(RequestOutcome outcome : RequestOutcome.values()) {
+            if(outcome != RequestOutcome.ACCEPTED && outcome != RequestOutcome.AUCTION_READY) {
+                line(out, "auction_requests_rejected_total{reason=\"" + outcome.name().toLowerCase(Locale.ROOT)
+                        + "\"}", getRejected(outcome));
+            }
+        }
+        line(out, "auction_auctions_started_total", getAuctionsStarted());
+        line(out, "auction_auctions_sold_total", getAuctionsSold());
+        line(out, "auction_auctions_unsold_total", getAuctionsUnsold());
+        line(out, "auction_bids_total", getBids());
+        line(out, "auction_auctions_ended_early_total", getAuctionsEndedEarly());
+        line(out, "auction_steps_saved_total", getStepsSaved());
+        histogram(out, "auction_signup_latency_nanoseconds", signUpLatency);
+        histogram(out, "auction_batch_latency_nanoseconds", batchLatency);
+        histogram(out, "auction_auction_latency_nanoseconds", auctionLatency);
+        histogram(out, "auction_step_latency_nanoseconds", stepLatency);
+        histogram(out, "auction_winner_latency_nanoseconds", winnerLatency);
+        histogram(out, "auction_step_bids", stepBids);
+        return out.toString();
+    }
+
+    //The histograms, by the name of their beans
+    private Map<String, Histogram> histograms() {
+        Map<String, Histogram> map = new LinkedHashMap<>();
+        map.put("SignUpLatency", signUpLatency);
+        map.put("BatchLatency", batchLatency);
+        map.put("AuctionLatency", auctionLatency);
+        map.put("StepLatency", stepLatency);
+        map.put("WinnerLatency", winnerLatency);
+        map.put("StepBids", stepBids);
+        return map;
+    }
+
+    private static void line(StringBuilder out, String name, long value) {
+        out.append(name).append(' ').append(value).append(System.lineSeparator());
+    }
+
+    private static void histogram(StringBuilder out, String name, Histogram histogram) {
+        line(out, name + "{quantile=\"0.5\"}", histogram.getP50());
+        line(out, name + "{quantile=\"0.9\"}", histogram.getP90());
+        line(out, name + "{quantile=\"0.99\"}", histogram.getP99());
+        line(out, name + "{quantile=\"0.999\"}", histogram.getP999());
+        line(out, name + "_max", histogram.getMax());
+        line(out, name + "_count", histogram.getCount());
+    }
+}
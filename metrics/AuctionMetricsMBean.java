@@ -0,0 +1,85 @@
+package metrics;
+
+/**
+ * The counters of the auction house published through JMX. The latency histograms are
+ * published as separate beans
+ */
+public interface AuctionMetricsMBean {
+
+    /**
+     * Gets the number of requests received, the rejected ones included
+     * @return the number of requests
+     */
+    long getRequests();
+
+    /**
+     * Gets the average number of requests received per second since the counters were reset
+     * @return the request rate
+     */
+    double getRequestsPerSecond();
+
+    /**
+     * Gets the number of requests of unknown clients
+     * @return the number of rejected requests
+     */
+    long getRejectedUnknownClient();
+
+    /**
+     * Gets the number of requests of unknown products
+     * @return the number of rejected requests
+     */
+    long getRejectedUnknownProduct();
+
+    /**
+     * Gets the number of requests offering less than the minimum price
+     * @return the number of rejected requests
+     */
+    long getRejectedInvalidPrice();
+
+    /**
+     * Gets the number of duplicate requests
+     * @return the number of rejected requests
+     */
+    long getRejectedDuplicate();
+
+    /**
+     * Gets the number of auctions started
+     * @return the number of auctions
+     */
+    long getAuctionsStarted();
+
+    /**
+     * Gets the number of auctions that sold their product
+     * @return the number of auctions
+     */
+    long getAuctionsSold();
+
+    /**
+     * Gets the number of auctions that did not sell their product
+     * @return the number of auctions
+     */
+    long getAuctionsUnsold();
+
+    /**
+     * Gets the number of bids received in all the bidding steps
+     * @return the number of bids
+     */
+    long getBids();
+
+    /**
+     * Gets the number of auctions whose bidding ended before the last step
+     * @return the number of auctions
+     */
+    long getAuctionsEndedEarly();
+
+    /**
+     * Gets the number of bidding steps skipped by the auctions that ended early
+     * @return the number of steps
+     */
+    long getStepsSaved();
+
+    /**
+     * Resets all the counters and histograms
+     */
+    void reset();
+}
@@ -0,0 +1,151 @@
+package metrics;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative long values, such as latencies in nanoseconds, with buckets
+ * of logarithmic width, as in HdrHistogram. The values smaller than 2 * SUB_BUCKETS are
+ * counted exactly, and every further power of two is split into SUB_BUCKETS buckets, so a
+ * value is known with a relative error of at most 1 / SUB_BUCKETS. The counts are kept in a
+ * fixed array, so recording a value never allocates and never takes a lock
+ */
+public class Histogram implements HistogramMBean {
+
+    //The number of buckets of each power of two, must be a power of two
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    //Enough buckets for any positive long value
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value, the negative values being recorded as 0
+     * @param value the recorded value
+     */
+    public void record(long value) {
+        if(value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+
+        //The maximum is rarely exceeded, so it is usually only read
+        long crtMax = max.get();
+        while(value > crtMax && !max.compareAndSet(crtMax, value)) {
+            crtMax = max.get();
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMean() {
+        long crtCount = count.sum();
+        return crtCount == 0 ? 0 : (double) sum.sum() / crtCount;
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public long getP50() {
+        return getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP90() {
+        return getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getP99() {
+        return getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getP999() {
+        return getValueAtPercentile(99.9);
+    }
+
+    /**
+     * Gets the value under which a percentage of the recorded values are placed. The values
+     * recorded while the buckets are read may be counted or not
+     * @param percentile the percentage, between 0 and 100
+     * @return the biggest value of the bucket holding the percentile, but no more than the
+     * maximum recorded value, or 0 if no value was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for(int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if(total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if(seen >= rank) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Removes all the recorded values
+     */
+    public void reset() {
+        for(int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Gets the bucket of a value
+     * @param value a non-negative value
+     * @return the index of its bucket
+     */
+    static int indexOf(long value) {
+        if(value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        //The value is shifted until only its SUB_BUCKET_BITS + 1 highest bits are left
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+        int top = (int) (value >>> shift);
+        return (shift + 1) * SUB_BUCKETS + top - SUB_BUCKETS;
+    }
+
+    /**
+     * Gets the biggest value counted by a bucket
+     * @param index the index of the bucket
+     * @return the biggest value of the bucket
+     */
+    static long highestValueOf(int index) {
+        if(index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long top = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
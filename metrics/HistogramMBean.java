@@ -0,0 +1,49 @@
+package metrics;
+
+/**
+ * The attributes of a histogram published through JMX
+ */
+public interface HistogramMBean {
+
+    /**
+     * Gets the number of recorded values
+     * @return the number of values
+     */
+    long getCount();
+
+    /**
+     * Gets the mean of the recorded values
+     * @return the mean, or 0 if no value was recorded
+     */
+    double getMean();
+
+    /**
+     * Gets the biggest recorded value
+     * @return the maximum, or 0 if no value was recorded
+     */
+    long getMax();
+
+    /**
+     * Gets the median of the recorded values
+     * @return the 50th percentile
+     */
+    long getP50();
+
+    /**
+     * Gets the 90th percentile of the recorded values
+     * @return the 90th percentile
+     */
+    long getP90();
+
+    /**
+     * Gets the 99th percentile of the recorded values
+     * @return the 99th percentile
+     */
+    long getP99();
+
+    /**
+     * Gets the 99.9th percentile of the recorded values
+     * @return the 99.9th percentile
+     */
+    long getP999();
+}
@@ -11,12 +11,16 @@ public class DeleteTask implements Runnable {
 
     private final Product product;
 
+    //The generation of the catalog when the task was created, the task giving up after a reset
+    private final int generation;
+
     /**
      * Constuctor for setting the product to be removed
      * @param product the product to be removed from the list
      */
     public DeleteTask(Product product) {
         this.product = product;
+        this.generation = AuctionHouse.getInstance().getCatalogGeneration();
     }
 
     /**
@@ -24,6 +28,6 @@ public class DeleteTask implements Runnable {
      */
     @Override
     public void run() {
-        AuctionHouse.getInstance().deleteProduct(product);
+        AuctionHouse.getInstance().deleteProduct(product, generation);
     }
 }
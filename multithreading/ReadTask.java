@@ -1,18 +1,27 @@
 package multithreading;
-import organisers.AuctionHouse;
+import clients.Client;
 
 /**
  * Class implementing runnable which executes
- * the task of reading all the products
- * in the products array of the auction house
+ * the task of reading the products of the auction
+ * house that changed since the client's last read
  */
 public class ReadTask implements Runnable{
+    private final Client client;
 
     /**
-     * Reads all the products from the array
+     * Constructor for the read task
+     * @param client the client reading the products
+     */
+    public ReadTask(Client client) {
+        this.client = client;
+    }
+
+    /**
+     * Reads the products changed since the client's last read
      */
     @Override
     public void run() {
-        AuctionHouse.getInstance().readProducts();
+        client.readCatalog();
     }
 }
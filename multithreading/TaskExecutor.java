@@ -0,0 +1,202 @@
+package multithreading;
+import helper.ThreadMode;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the add, delete and read tasks of the auction house, instead of starting a new
+ * thread for each of them. Based on the Singleton design pattern. The threads can be
+ * taken from a bounded pool, be virtual threads, or be started for every task as before.
+ * The initial mode is read from the "auction.taskMode" system property
+ */
+public class TaskExecutor {
+    private static TaskExecutor uniqueINSTANCE = null;
+
+    //How long the shutdown waits for the tasks before interrupting them
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final Logger logger = Logger.getLogger(TaskExecutor.class.getName());
+    private final int poolSize = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    //Used for numbering the threads of the pools
+    private final AtomicInteger workerCount = new AtomicInteger();
+
+    //The number of submitted tasks that are not finished, guarded by idleLock
+    private final Object idleLock = new Object();
+    private int pendingTasks;
+
+    private ThreadMode mode;
+
+    //The executor for the current mode, created when the first task is submitted
+    private ExecutorService executor;
+
+    /**
+     * Gets the unique instance of the task executor
+     * @return an unique instance
+     */
+    public static synchronized TaskExecutor getInstance() {
+        if(uniqueINSTANCE == null) {
+            uniqueINSTANCE = new TaskExecutor();
+        }
+        return uniqueINSTANCE;
+    }
+
+    /**
+     * Private constructor for ensuring only one instance
+     * is created
+     */
+    private TaskExecutor() {
+        mode = ThreadMode.valueOf(System.getProperty("auction.taskMode", ThreadMode.PLATFORM_POOL.name()));
+    }
+
+    /**
+     * Changes the way the tasks are run. The tasks submitted before are finished first
+     * @param mode the new mode
+     */
+    public synchronized void setMode(ThreadMode mode) {
+        shutdown();
+        this.mode = mode;
+    }
+
+    /**
+     * Gets the way the tasks are run
+     * @return the current mode
+     */
+    public synchronized ThreadMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Submits a task to be run
+     * @param task the add, delete or read task
+     * @return a future that completes when the task is done
+     */
+    public Future<?> submit(Runnable task) {
+        synchronized(idleLock) {
+            pendingTasks++;
+        }
+        Runnable counted = () -> {
+            try {
+                task.run();
+            } finally {
+                taskDone();
+            }
+        };
+
+        try {
+            ExecutorService crtExecutor;
+            synchronized(this) {
+                if(mode == ThreadMode.THREAD_PER_TASK) {
+                    //Keep the initial behaviour, a new platform thread for every task
+                    FutureTask<Void> futureTask = new FutureTask<>(counted, null);
+                    new Thread(futureTask).start();
+                    return futureTask;
+                }
+                if(executor == null) {
+                    executor = createExecutor();
+                }
+                crtExecutor = executor;
+            }
+            return crtExecutor.submit(counted);
+        } catch(RuntimeException | Error e) {
+            //The task was never started
+            taskDone();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits until all the submitted tasks are finished, including the ones submitted while waiting,
+     * such as the delete tasks of the products sold by the last auctions
+     */
+    public void awaitIdle() {
+        synchronized(idleLock) {
+            try {
+                while(pendingTasks > 0) {
+                    idleLock.wait();
+                }
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    //Counts a finished task, waking up the threads waiting for the executor to become idle
+    private void taskDone() {
+        synchronized(idleLock) {
+            if(--pendingTasks == 0) {
+                idleLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until all the specified tasks are done
+     * @param tasks the futures of the submitted tasks
+     */
+    public static void awaitAll(List<Future<?>> tasks) {
+        try {
+            for(Future<?> task : tasks) {
+                task.get();
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Stops accepting tasks for the current executor and waits for the submitted ones.
+     * The tasks still running after the timeout are interrupted. A new executor is created if more tasks are submitted afterwards
+     */
+    public synchronized void shutdown() {
+        if(executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if(!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                cancelWaitingTasks();
+            }
+        } catch(InterruptedException e) {
+            cancelWaitingTasks();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    //Interrupts the running tasks, the tasks that never started being counted as finished
+    private void cancelWaitingTasks() {
+        for(int i = executor.shutdownNow().size(); i > 0; i--) {
+            taskDone();
+        }
+    }
+
+    //Creates the executor for the current mode
+    private ExecutorService createExecutor() {
+        if(mode == ThreadMode.VIRTUAL) {
+            try {
+                //Virtual threads are only available on newer runtimes, so they are obtained by reflection
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch(ReflectiveOperationException e) {
+                logger.log(Level.WARNING, "Virtual threads are not supported, using a pool of platform threads");
+            }
+        }
+
+        return Executors.newFixedThreadPool(poolSize, task -> {
+            Thread worker = new Thread(task, "task-worker-" + workerCount.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+    }
+}
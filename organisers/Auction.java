@@ -1,5 +1,6 @@
 package organisers;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The class for storing all the relevant information about an auction, like
@@ -11,14 +12,27 @@ public class Auction {
     int noParticipants;
     int idProduct;
     int noMaxSteps;
-    int noSignedUpParticipants;
+
+    //Counter updated atomically by the clients that sign up concurrently
+    private final AtomicInteger noSignedUpParticipants = new AtomicInteger();
+
+    /**
+     * The possible results of signing up a participant
+     */
+    public enum Registration {
+        //The auction already has all the participants it needs
+        FULL,
+        //The participant was added, but more participants are needed
+        REGISTERED,
+        //The participant was the last one needed, so the auction can start
+        READY
+    }
 
     /**
      * Constructor that initialises the number of signed up
      * participants to 0
      */
     public Auction() {
-        noSignedUpParticipants = 0;
     }
 
     /**
@@ -29,7 +43,6 @@ public class Auction {
      * @param noParticipants the number of required participants for the auction to start
      */
     public Auction(int idProduct, int noMaxSteps, int noParticipants) {
-        noSignedUpParticipants = 0;
         this.noParticipants = noParticipants;
         this.idProduct = idProduct;
         this.noMaxSteps = noMaxSteps;
@@ -40,14 +53,47 @@ public class Auction {
      * @return a boolean value describing whether the auction can start
      */
     public boolean canStart() {
-        return noParticipants == noSignedUpParticipants;
+        return noParticipants == noSignedUpParticipants.get();
     }
 
     /**
      * Increments the number of participants at this auction
      */
     public void incrementParticipants() {
-        noSignedUpParticipants++;
+        noSignedUpParticipants.incrementAndGet();
+    }
+
+    /**
+     * Atomically signs up a new participant, as long as the auction is not full.
+     * Exactly one caller, the one that brings the last participant, obtains READY
+     * @return the result of the registration
+     */
+    public Registration register() {
+        while(true) {
+            int crtParticipants = noSignedUpParticipants.get();
+            if(crtParticipants >= noParticipants) {
+                return Registration.FULL;
+            }
+            if(noSignedUpParticipants.compareAndSet(crtParticipants, crtParticipants + 1)) {
+                return crtParticipants + 1 == noParticipants ? Registration.READY : Registration.REGISTERED;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of participants that signed up for this auction
+     * @return the number of signed up participants
+     */
+    public int getNoSignedUpParticipants() {
+        return noSignedUpParticipants.get();
+    }
+
+    /**
+     * Gets the number of participants needed for the auction to start
+     * @return the number of required participants
+     */
+    public int getNoParticipants() {
+        return noParticipants;
     }
 
     /**
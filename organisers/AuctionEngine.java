@@ -0,0 +1,150 @@
+package organisers;
+import helper.EngineMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the auctions that are ready to start. The sequential engine runs every auction
+ * in the thread that completed it, while the pooled engine hands the auctions to a pool
+ * of worker threads, so that independent products are sold in parallel.
+ * Two auctions that share a participant or a product are never run at the same time:
+ * the second one waits for the first, so every client sees its auctions in the same
+ * order as in the sequential engine, and the results are the same
+ */
+public class AuctionEngine {
+
+    //Used for numbering the worker threads of all the pooled engines
+    private static final AtomicInteger WORKER_COUNT = new AtomicInteger();
+
+    private final Executor executor;
+
+    //The pool owned by this engine, null for the sequential engine
+    private final ExecutorService pool;
+
+    //The last submitted auction for every participant or product, guarded by this engine
+    private final Map<Object, CompletableFuture<AuctionResult>> lastAuctions = new HashMap<>();
+
+    //The auctions that are not finished yet
+    private final Set<CompletableFuture<AuctionResult>> pending = ConcurrentHashMap.newKeySet();
+
+    private AuctionEngine(Executor executor, ExecutorService pool) {
+        this.executor = executor;
+        this.pool = pool;
+    }
+
+    /**
+     * Creates an engine that runs every auction in the calling thread
+     * @return a sequential engine
+     */
+    public static AuctionEngine sequential() {
+        return new AuctionEngine(Runnable::run, null);
+    }
+
+    /**
+     * Creates the engine chosen by the "auction.engine" system property, SEQUENTIAL by default.
+     * The number of threads of a pooled engine is read from the "auction.engineThreads" system
+     * property, and is the number of processors by default
+     * @return a new auction engine
+     */
+    public static AuctionEngine fromProperties() {
+        EngineMode mode = EngineMode.valueOf(System.getProperty("auction.engine", EngineMode.SEQUENTIAL.name()));
+        if(mode == EngineMode.POOLED) {
+            return pooled(Integer.getInteger("auction.engineThreads", Runtime.getRuntime().availableProcessors()));
+        }
+        return sequential();
+    }
+
+    /**
+     * Creates an engine that runs the auctions on a pool of worker threads
+     * @param threads the number of worker threads
+     * @return a pooled engine
+     */
+    public static AuctionEngine pooled(int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread worker = new Thread(task, "auction-worker-" + WORKER_COUNT.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+        return new AuctionEngine(pool, pool);
+    }
+
+    /**
+     * Submits an auction that is ready to start
+     * @param conflictKeys the participants and the product of the auction; auctions sharing
+     *                     any of these keys are run one after another, in the submission order
+     * @param auctionRun the task that runs the auction and returns its result
+     * @return a completion handle for the result of the auction
+     */
+    public CompletableFuture<AuctionResult> submit(Collection<?> conflictKeys, Supplier<AuctionResult> auctionRun) {
+        CompletableFuture<AuctionResult> result = new CompletableFuture<>();
+        List<CompletableFuture<?>> previousAuctions = new ArrayList<>();
+
+        synchronized(this) {
+            for(Object key : conflictKeys) {
+                CompletableFuture<AuctionResult> previous = lastAuctions.put(key, result);
+                //A failed auction does not stop the following ones
+                if(previous != null) {
+                    previousAuctions.add(previous.handle((value, error) -> null));
+                }
+            }
+        }
+        pending.add(result);
+
+        result.whenComplete((value, error) -> {
+            forget(conflictKeys, result);
+            pending.remove(result);
+        });
+
+        CompletableFuture.allOf(previousAuctions.toArray(new CompletableFuture<?>[0]))
+                .thenRunAsync(() -> {
+                    try {
+                        result.complete(auctionRun.get());
+                    } catch(RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                }, executor);
+        return result;
+    }
+
+    /**
+     * Waits until all the submitted auctions are finished
+     */
+    public void awaitIdle() {
+        while(!pending.isEmpty()) {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                    .handle((value, error) -> null)
+                    .join();
+        }
+    }
+
+    /**
+     * Waits for the submitted auctions, then stops the worker threads
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void shutdown() throws InterruptedException {
+        awaitIdle();
+        if(pool != null) {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    //Removes the keys that still point to a finished auction
+    private synchronized void forget(Collection<?> conflictKeys, CompletableFuture<AuctionResult> result) {
+        for(Object key : conflictKeys) {
+            lastAuctions.remove(key, result);
+        }
+    }
+}
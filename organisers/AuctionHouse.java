@@ -2,13 +2,29 @@ package organisers;
 import clients.Client;
 import exceptions.DuplicateRequestException;
 import exceptions.InvalidProductRequest;
+import events.AuctionEvent;
+import events.ColoredTextSink;
+import events.EventBus;
 import exceptions.UnknownProductException;
-import helper.Color;
+import helper.IntHashMap;
+import helper.RequestOutcome;
+import interfaces.Observer;
+import journal.AuctionJournal;
+import journal.JournalRecord;
+import metrics.AuctionMetrics;
+import multithreading.TaskExecutor;
 import products.Product;
+import profiling.AuctionStartEvent;
+import profiling.BidStepEvent;
+import profiling.BrokerAssignmentEvent;
+import profiling.ProductDeletionEvent;
+import profiling.SignUpEvent;
+import profiling.ValidationEvent;
+import profiling.WinnerResolutionEvent;
 import java.util.*;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,23 +35,43 @@ import java.util.logging.Logger;
 public class AuctionHouse {
     private static AuctionHouse uniqueINSTANCE = null;
 
-    //The products available in the house
-    private List<Product> products;
+    //The products available in the house, indexed by their id and guarded by striped locks
+    private final ProductCatalog products = new ProductCatalog();
 
     //The products sold
-    private List<Product> soldProducts;
+    private final List<Product> soldProducts = Collections.synchronizedList(new ArrayList<>());
 
-    private List<Client> clients;
-    private List<Auction> auctions;
-    private List<Employee> employees;
+    //The clients are only appended, under the lock of the list, because their id is their position
+    private final List<Client> clients = Collections.synchronizedList(new ArrayList<>());
+
+    //The employees and the brokers among them are rarely changed, but often read
+    private final List<Employee> employees = new CopyOnWriteArrayList<>();
+    private final List<Broker> brokers = new CopyOnWriteArrayList<>();
+
+    //The pending auctions, indexed by the id of their product
+    private final AuctionRegistry auctions = new AuctionRegistry();
+
+    //Every (client, product) pair requested so far, used for rejecting duplicate requests
+    private final RequestIndex requests = new RequestIndex();
+
+    //The engine that runs the auctions once they have all their participants, chosen by the system properties
+    private volatile AuctionEngine engine = AuctionEngine.fromProperties();
 
     //Logger used for printing messages in each auction
     private final Logger logger = Logger.getLogger(AuctionHouse.class.getName());
-    private int organisedAuctions;
 
-    //Lock used for preventing race conditions between various Threads
-    private final Lock lock = new ReentrantLock();
-    Condition wasAdded = lock.newCondition();
+    //The events of the auctions are written by a background thread, by default as colored text
+    private final EventBus events = new EventBus();
+
+    //The journal receiving the outcome of every sold product, if one is used
+    private volatile AuctionJournal journal;
+    private final AtomicInteger organisedAuctions = new AtomicInteger();
+
+    //The counters and latencies of the requests and of the auctions
+    private final AuctionMetrics metrics = AuctionMetrics.getInstance();
+
+    //If set, the bidding stops as soon as the outcome of the auction can no longer change
+    private volatile boolean earlyTermination = Boolean.parseBoolean(System.getProperty("auction.earlyTermination", "true"));
 
     /**
      * Creates an unique instance for this Auction House or
@@ -53,6 +89,7 @@ public class AuctionHouse {
      * Private constructor for preventing instantiation
      */
     private AuctionHouse() {
+        events.addSink(new ColoredTextSink(logger));
         resetAll();
     }
 
@@ -61,13 +98,18 @@ public class AuctionHouse {
      * Resets all the attributes to their initial values
      */
     public void resetAll() {
-
-        products = new ArrayList<>();
-        clients = new ArrayList<>();
-        auctions = new ArrayList<>();
-        employees = new ArrayList<>();
-        soldProducts = new ArrayList<>();
-        organisedAuctions = 0;
+        //Let the running auctions finish before their data is dropped
+        engine.awaitIdle();
+
+        //The deletions still waiting for a product are dropped
+        products.clear();
+        clients.clear();
+        auctions.clear();
+        requests.clear();
+        employees.clear();
+        brokers.clear();
+        soldProducts.clear();
+        organisedAuctions.set(0);
     }
 
     /**
@@ -75,20 +117,8 @@ public class AuctionHouse {
      * @param p the product to be added
      */
     public void add(Product p) {
-        //Obtains a lock
-        lock.lock();
-
-        if(products.contains(p)) {
-            lock.unlock();
-            return;
-        }
-
-        //Adds the product and signals that a new product has been added
+        //Adds the product only if its id is not taken, locking only the stripe of the product
         products.add(p);
-        wasAdded.signalAll();
-
-        //Releases the lock
-        lock.unlock();
     }
 
     /**
@@ -96,9 +126,13 @@ public class AuctionHouse {
      * @param c the client to be added
      */
     public void add(Client c) {
-        if(!clients.contains(c)) {
-            c.setId(clients.size());
-            clients.add(c);
+        //The id of a client is its position in the list, so a known client is found without a search
+        synchronized(clients) {
+            int id = c.getId();
+            if(id < 0 || id >= clients.size() || clients.get(id) != c) {
+                c.setId(clients.size());
+                clients.add(c);
+            }
         }
     }
 
@@ -108,6 +142,9 @@ public class AuctionHouse {
      */
     public void add(Employee e) {
         employees.add(e);
+        if(e instanceof Broker) {
+            brokers.add((Broker) e);
+        }
     }
 
     /**
@@ -131,22 +168,33 @@ public class AuctionHouse {
      * @param p the product to be deleted
      */
     public void deleteProduct(Product p) {
-        //Obtains the lock
-        lock.lock();
+        deleteProduct(p, products.getGeneration());
+    }
 
-        //If the list does not contain the product, then wait until a new one is added
-        try {
-            while(!products.contains(p)) {
-                wasAdded.await();
-            }
-            products.remove(p);
-        } catch(InterruptedException e) {
-            //Interrupt the thread in case of problems
-            Thread.currentThread().interrupt();
-        } finally {
-            //Release the lock for other threads
-            lock.unlock();
-        }
+    /**
+     * Deletes a product from the list of available products, unless the house was reset after the
+     * deletion was decided. A deletion still waiting in a queue during a reset must not wait for, or
+     * delete, a product of the next configuration
+     * @param p the product to be deleted
+     * @param generation the generation of the catalog when the deletion was decided
+     */
+    public void deleteProduct(Product p, int generation) {
+        ProductDeletionEvent deletion = new ProductDeletionEvent();
+        deletion.begin();
+
+        //If the catalog does not contain the product, then it is deleted when it is added
+        products.delete(p, generation);
+        deletion.setProductId(p.getId());
+        deletion.setGeneration(generation);
+        deletion.commit();
+    }
+
+    /**
+     * Gets the generation of the catalog, incremented by every reset
+     * @return the number of times the catalog was cleared
+     */
+    public int getCatalogGeneration() {
+        return products.getGeneration();
     }
 
     /**
@@ -154,149 +202,353 @@ public class AuctionHouse {
      * when signing up
      */
     public void readProducts() {
-        //Obtains a lock to avoid race conditions
-        lock.lock();
+        readProducts(-1);
+    }
+
+    /**
+     * Method for reading only the products changed after a version of the catalog that was
+     * already read. If the changes are no longer kept, all the products are read again. The
+     * products are logged only if the logger accepts the records
+     * @param knownVersion the version of the catalog read last time, or -1 for reading all the products
+     * @return the version of the catalog that was read
+     */
+    public long readProducts(long knownVersion) {
+        boolean loggable = logger.isLoggable(Level.ALL);
+        List<CatalogChange> changes = knownVersion < 0 ? null : products.changesSince(knownVersion);
+        if(changes == null) {
+            //The shared snapshot is read without any lock, so the logging does not delay an add or a delete task
+            CatalogSnapshot snapshot = products.snapshot();
+            if(loggable) {
+                snapshot.getProducts().forEach(prod -> logger.log(Level.ALL, "Product: {0} ", prod));
+            }
+            return snapshot.getVersion();
+        }
 
-        products.forEach(prod -> logger.log(Level.ALL, "Product: {0} ", prod));
+        if(loggable) {
+            changes.forEach(change -> logger.log(Level.ALL, "Product {0}: {1} ",
+                    new Object[]{change.getType(), change.getProduct()}));
+        }
+        return knownVersion + changes.size();
+    }
 
-        //Releases the lock for either an add or a delete task
-        lock.unlock();
+    /**
+     * Gets the changes made to the catalog after a specific version
+     * @param version the version known by the caller
+     * @return the changes in order, or null if the whole catalog must be read again
+     */
+    public List<CatalogChange> getCatalogChanges(long version) {
+        return products.changesSince(version);
     }
 
     /**
      * Register a request by a specific client, for a specific product, with the maximum price specified. If the
-     * product requested has an auction that can be started, then start an auction, and log a string representation
-     * of the auction process
+     * product requested has an auction that can be started, then the auction is handed to the auction engine,
+     * which runs it and publishes the events of the auction process
      * @param c The client that makes the request
      * @param productId the product requested by him
      * @param maxPrice the maximum price the client is willing to offer for the product
+     * @return a completion handle for the auction started by this request, or null if no auction was started
      * @throws UnknownProductException if the product is not found
      * @throws DuplicateRequestException if the request has already been sent
      * @throws InvalidProductRequest if the sum offered is too small
      */
-    public void request(Client c, int productId, double maxPrice) throws UnknownProductException, DuplicateRequestException, InvalidProductRequest {
+    public CompletableFuture<AuctionResult> request(Client c, int productId, double maxPrice) throws UnknownProductException, DuplicateRequestException, InvalidProductRequest {
+
+        long start = System.nanoTime();
+        metrics.countRequests(1);
+        SignUpEvent signUp = new SignUpEvent();
+        signUp.begin();
 
         //Add the client and find the requested product
         add(c);
+        signUp.setClientId(c.getId());
+        signUp.setProductId(productId);
+        ValidationEvent validation = new ValidationEvent();
+        validation.begin();
+        validation.setClientId(c.getId());
+        validation.setProductId(productId);
         Product demandedProduct;
-        demandedProduct = findProduct(productId, maxPrice);
-
-        //Check whether the request for this product is valid, then assign a broker to the client
-        checkValidRequest(c, demandedProduct);
+        try {
+            demandedProduct = findProduct(productId, maxPrice);
+
+            //Check whether the request for this product is valid
+            checkValidRequest(c, demandedProduct);
+        } catch(UnknownProductException e) {
+            reject(RequestOutcome.UNKNOWN_PRODUCT, validation, signUp);
+            throw e;
+        } catch(InvalidProductRequest e) {
+            reject(RequestOutcome.INVALID_PRICE, validation, signUp);
+            throw e;
+        } catch(DuplicateRequestException e) {
+            reject(RequestOutcome.DUPLICATE, validation, signUp);
+            throw e;
+        }
+        validation.setValid(true);
+        validation.commit();
         assignRandomBroker(c, demandedProduct, maxPrice);
 
-        //Search for an auction for that specific product
-        for(Auction auction : auctions) {
-            if(auction.getIdProduct() == productId) {
-                //If an auction is found, increment the participants
-                auction.incrementParticipants();
-
-                //If the auction can be started, then start it
-                if(auction.canStart()) {
-                    //Initialise a new string builder to be printed
-                    StringBuilder sb = new StringBuilder();
-
-                    //Notify the brokers about the auction
-                    startBrokers(demandedProduct);
-                    organisedAuctions++;
-                    appendAuctionInfo(sb, demandedProduct);
-
-                    //Compute the maximum bid at each step
-                    double biggestBid = 0;
-                    int maxSteps = auction.getNoMaxSteps();
-                    for(int step = 0; step < maxSteps; step++) {
-                        //Request the bids from the brokers
-                        biggestBid = updateBiggestBid(biggestBid, demandedProduct, step, sb);
+        //Sign up for an auction of that product. Only the request that completes the auction obtains it
+        Auction auction = auctions.register(productId);
+        metrics.getSignUpLatency().record(System.nanoTime() - start);
+        signUp.setOutcome(auction == null ? RequestOutcome.ACCEPTED.name() : RequestOutcome.AUCTION_READY.name());
+        signUp.commit();
+        if(auction == null) {
+            return null;
+        }
+
+        //Freeze the participants, then let the engine run the auction
+        int auctionNumber = organisedAuctions.incrementAndGet();
+        List<Object> conflictKeys = prepareBrokers(demandedProduct);
+        return engine.submit(conflictKeys, () -> runAuction(auction, auctionNumber, demandedProduct));
+    }
+
+    /**
+     * Registers a batch of requests in one pass. The clients and the brokers are read once for the
+     * whole batch, and every product is searched once, no matter how many requests demand it. The
+     * requests are validated and routed in their order, so the auction of a product still freezes the
+     * participants that signed up before its last request, but the auctions that become ready are
+     * handed to the auction engine only at the end of the batch
+     * @param batch the requests, as (client, product, maximum price) tuples
+     * @return the outcome of every request, in the order of the batch
+     */
+    public RequestOutcome[] requestAll(RequestBatch batch) {
+        //The latency of the whole batch is measured from the moment it is received
+        long start = System.nanoTime();
+        RequestOutcome[] outcomes = new RequestOutcome[batch.size()];
+
+        //Resolve all the clients under a single lock of the list
+        Client[] batchClients = new Client[batch.size()];
+        synchronized(clients) {
+            for(int i = 0; i < batch.size(); i++) {
+                int clientId = batch.getClientId(i);
+                if(clientId >= 0 && clientId < clients.size()) {
+                    batchClients[i] = clients.get(clientId);
+                }
+            }
+        }
+
+        //Each client reads the catalog once for all his requests
+        Set<Client> readers = Collections.newSetFromMap(new IdentityHashMap<>());
+        IntHashMap<Product> batchProducts = new IntHashMap<>();
+        List<Broker> crtBrokers = getBrokers();
+        Random random = new Random();
+        List<Runnable> readyAuctions = new ArrayList<>();
+
+        for(int i = 0; i < batch.size(); i++) {
+            //Every row is recorded as a sign up, whichever way it leaves the loop, and is timed from its own start
+            long rowStart = System.nanoTime();
+            SignUpEvent signUp = new SignUpEvent();
+            signUp.begin();
+            try {
+                Client c = batchClients[i];
+                if(c == null) {
+                    outcomes[i] = RequestOutcome.UNKNOWN_CLIENT;
+                    continue;
+                }
+                if(readers.add(c)) {
+                    c.readCatalog();
+                }
+
+                //Find the requested product, searching the catalog only the first time it is requested
+                int productId = batch.getProductId(i);
+                Product demandedProduct = batchProducts.get(productId);
+                if(demandedProduct == null) {
+                    demandedProduct = products.find(productId);
+                    if(demandedProduct == null) {
+                        outcomes[i] = RequestOutcome.UNKNOWN_PRODUCT;
+                        continue;
                     }
-                    //If the maximum bid is too small, then the product is not sold
-                    if(biggestBid < demandedProduct.getMinPrice()) {
-                        appendNotSoldMessage(sb, demandedProduct, biggestBid);
-                    } else sb.append(updateWinner(biggestBid, demandedProduct));
-                    //If the product is sold, print its information
-                    String auctionInfo = sb.toString();
-                    logger.log(Level.INFO, auctionInfo);
-
-                    //Remove the auction and tell the brokers to close the communication to the clients
-                    auctions.remove(auction);
-                    reset();
+                    batchProducts.put(productId, demandedProduct);
+                }
+                double maxPrice = batch.getMaxPrice(i);
+                if(demandedProduct.getMinPrice() > maxPrice) {
+                    outcomes[i] = RequestOutcome.INVALID_PRICE;
+                    continue;
+                }
+                if(!requests.add(c.getId(), productId)) {
+                    outcomes[i] = RequestOutcome.DUPLICATE;
+                    continue;
                 }
-                break;
+
+                //Assign a random broker, then sign up for an auction of that product
+                assignBroker(crtBrokers, random.nextInt(crtBrokers.size()), c, demandedProduct, maxPrice);
+                Auction auction = auctions.register(productId);
+                metrics.getSignUpLatency().record(System.nanoTime() - rowStart);
+                if(auction == null) {
+                    outcomes[i] = RequestOutcome.ACCEPTED;
+                    continue;
+                }
+
+                //Freeze the participants now, but start the auction after the whole batch
+                int auctionNumber = organisedAuctions.incrementAndGet();
+                List<Object> conflictKeys = prepareBrokers(demandedProduct);
+                Product auctionProduct = demandedProduct;
+                readyAuctions.add(() -> engine.submit(conflictKeys, () -> runAuction(auction, auctionNumber, auctionProduct)));
+                outcomes[i] = RequestOutcome.AUCTION_READY;
+            } finally {
+                signUp.setProductId(batch.getProductId(i));
+                signUp.setClientId(batch.getClientId(i));
+                signUp.setOutcome(outcomes[i] == null ? null : outcomes[i].name());
+                signUp.commit();
+            }
+        }
+
+        metrics.countRequests(outcomes.length);
+        for(RequestOutcome outcome : outcomes) {
+            metrics.countOutcome(outcome);
+        }
+        readyAuctions.forEach(Runnable::run);
+        metrics.getBatchLatency().record(System.nanoTime() - start);
+        return outcomes;
+    }
+
+    //Runs all the bidding steps of an auction, publishing the auction process as events
+    private AuctionResult runAuction(Auction auction, int auctionNumber, Product demandedProduct) {
+        /* A product sold by a previous auction can not be sold again. This happens only when the sign ups
+        for the product are accepted before the previous auction deletes it */
+        if(demandedProduct.getSellPrice() != 0) {
+            reset(demandedProduct);
+            return new AuctionResult(auction, demandedProduct, auctionNumber, 0, false);
+        }
+
+        long start = System.nanoTime();
+        metrics.countAuctionStarted();
+
+        //The events are created only if a sink wants them, the decision being taken once for the whole auction
+        boolean publish = events.isEnabled();
+
+        //Notify the brokers about the auction
+        AuctionStartEvent auctionStart = new AuctionStartEvent();
+        auctionStart.begin();
+        startBrokers(demandedProduct);
+        auctionStart.setProductId(demandedProduct.getId());
+        auctionStart.setAuctionId(auctionNumber);
+        auctionStart.setParticipants(auction.getNoParticipants());
+        auctionStart.setMaxSteps(auction.getNoMaxSteps());
+        auctionStart.commit();
+        if(publish) events.publish(AuctionEvent.started(auctionNumber, demandedProduct));
+
+        //Compute the maximum bid at each step, the same buffer receiving the bids of every step
+        double biggestBid = 0;
+        int maxSteps = auction.getNoMaxSteps();
+        int lastStep = maxSteps;
+        BidBuffer bids = new BidBuffer(auction.getNoParticipants());
+        double previousBiggestBid = 0;
+        for(int step = 0; step < lastStep; step++) {
+            //Request the bids from the brokers
+            long stepStart = System.nanoTime();
+            BidStepEvent bidStep = new BidStepEvent();
+            bidStep.begin();
+            biggestBid = updateBiggestBid(biggestBid, demandedProduct, step, bids, publish ? auctionNumber : -1);
+            metrics.recordStep(System.nanoTime() - stepStart, bids.size());
+            bidStep.setProductId(demandedProduct.getId());
+            bidStep.setAuctionId(auctionNumber);
+            bidStep.setParticipants(auction.getNoParticipants());
+            bidStep.setStep(step);
+            bidStep.setBids(bids.size());
+            bidStep.setBiggestBid(biggestBid);
+            bidStep.commit();
+
+            /* From the second step on, the participants know the biggest bid of the previous step. If none of
+            them changed his bid and the biggest bid is the same, every following step repeats this one */
+            if(earlyTermination && step > 0 && !bids.hasChanged() && biggestBid == previousBiggestBid) {
+                lastStep = step + 1;
             }
+            previousBiggestBid = biggestBid;
+        }
+        if(lastStep < maxSteps) {
+            metrics.countEndedEarly(maxSteps - lastStep);
         }
+        //If the maximum bid is too small, then the product is not sold
+        WinnerResolutionEvent resolution = new WinnerResolutionEvent();
+        resolution.begin();
+        boolean sold = biggestBid >= demandedProduct.getMinPrice();
+        if(!sold) {
+            if(publish) events.publish(AuctionEvent.notSold(auctionNumber, demandedProduct, biggestBid));
+        } else updateWinner(biggestBid, demandedProduct, auctionNumber, publish);
+        resolution.setProductId(demandedProduct.getId());
+        resolution.setAuctionId(auctionNumber);
+        resolution.setParticipants(auction.getNoParticipants());
+        resolution.setPrice(biggestBid);
+        resolution.setSold(sold);
+        resolution.commit();
+        if(publish) events.publish(AuctionEvent.ended(auctionNumber, demandedProduct));
+
+        //Tell the brokers to close the communication to the clients
+        reset(demandedProduct);
+        metrics.countAuctionEnded(sold);
+        metrics.getAuctionLatency().record(System.nanoTime() - start);
+        return new AuctionResult(auction, demandedProduct, auctionNumber, biggestBid, sold);
     }
 
-    //Appends the information about the auction number and the product's worth to the string builder
-    private void appendAuctionInfo(StringBuilder sb, Product demandedProduct) {
-        sb.append("Auction ")
-                .append(organisedAuctions)
-                .append("\n")
-                .append("\t" + Color.PURPLE + "Auction for ")
-                .append(demandedProduct.getName())
-                .append(" worth ")
-                .append(demandedProduct.getMinPrice())
-                .append("$:").append(Color.RESET)
-                .append("\n");
-    }
-
-    //Appends the message about the minimum selling price and the biggest bid for this product to the string builder
-    private void appendNotSoldMessage(StringBuilder sb, Product demandedProduct, double biggestBid) {
-        String productType = Product.getType(demandedProduct);
-        sb.append("\t" + Color.PURPLE)
-                .append(productType).append(" ")
-                .append(demandedProduct.getName())
-                .append(" was not sold! Biggest bid: ")
-                .append(biggestBid)
-                .append("$, Min sell price: ")
-                .append(demandedProduct.getMinPrice())
-                .append("$.\n")
-                .append(Color.RESET);
-    }
-
-    /* Gets the bids from each broker, and update the biggest bid with the maximum bid from them, then concatenate
-    a String to the StringBuilder */
-    private double updateBiggestBid(double biggestBid, Product demandedProduct, int step, StringBuilder sb) {
-
-        //Print message about the number of steps
-        int i = 0;
-        sb.append(Color.CYAN + "\t\tStep ").append(step).append(":").append(Color.RESET).append("\n");
+    /* Gets the bids from each broker, and update the biggest bid with the maximum bid from them. If the auction
+    number is not negative, the step and its bids are published as events */
+    private double updateBiggestBid(double biggestBid, Product demandedProduct, int step, BidBuffer bids,
+                                    int auctionNumber) {
+        boolean publish = auctionNumber >= 0;
+        if(publish) events.publish(AuctionEvent.step(auctionNumber, demandedProduct, step));
+
+        bids.clear();
         for (Broker br : getBrokers()) {
-            //The bids obtained by each broker
-            List<Double> bids = br.bid(demandedProduct);
-            for(Double bid : bids) {
-                //Print message about the number of bids
-                i++;
-                sb.append(Color.BLUE + "\t\t\tBid ").append(i).append(": ").append(bid).append("$").append(Color.RESET).append("\n");
+            //The bids obtained by each broker are added after the bids of the previous brokers
+            int firstBid = bids.size();
+            br.bid(demandedProduct, bids);
+            if(publish) {
+                for(int i = firstBid; i < bids.size(); i++) {
+                    events.publish(AuctionEvent.bid(auctionNumber, demandedProduct, i + 1, bids.getAmount(i)));
+                }
             }
-            double maxBidOfBroker = 0;
-            if(!bids.isEmpty()) maxBidOfBroker = Collections.max(bids);
             //Extract the biggest bid
-            biggestBid = Math.max(biggestBid, maxBidOfBroker);
+            biggestBid = Math.max(biggestBid, bids.max(firstBid));
         }
         //Return this bid and update the brokers about the biggest bid
         updateBrokers(biggestBid, demandedProduct);
-        sb.append("\n");
         return biggestBid;
     }
 
-    //Checks if a request is valid. That is, if the product was not requested before by the same client
+    /* Checks if a request is valid. That is, if the product was not requested before by the same client.
+    A valid request is recorded at the same time, so two concurrent identical requests can not both pass */
     private void checkValidRequest(Client c, Product demandedProduct) throws DuplicateRequestException {
-        for(Broker br : getBrokers()) {
-            List<Client> brokerClients = br.getClients();
-            List<Information> entryInfo = br.getEntryInfo();
-            for (int i = 0; i < brokerClients.size(); i++) {
-                if (c.equals(brokerClients.get(i)) && entryInfo.get(i).getDemandedProduct().equals(demandedProduct)) {
-                    throw new DuplicateRequestException();
-                }
-            }
+        if(!requests.add(c.getId(), demandedProduct.getId())) {
+            throw new DuplicateRequestException();
         }
     }
 
     //Assigns a random broker for the specified client
-    private void assignRandomBroker(Client c, Product demandedProduct, double maxPrice) throws DuplicateRequestException {
+    private void assignRandomBroker(Client c, Product demandedProduct, double maxPrice) {
         List<Broker> brokers = getBrokers();
-
         int randomBrokerId = (new Random()).nextInt(brokers.size());
-        brokers.get(randomBrokerId).add(c, demandedProduct, maxPrice);
+        assignBroker(brokers, randomBrokerId, c, demandedProduct, maxPrice);
+    }
+
+    //Subscribes a client to a broker for a product
+    private void assignBroker(List<Broker> brokers, int brokerIndex, Client c, Product demandedProduct, double maxPrice) {
+        BrokerAssignmentEvent assignment = new BrokerAssignmentEvent();
+        assignment.begin();
+
+        //The request was already validated by the house, so the broker does not search for duplicates again
+        brokers.get(brokerIndex).subscribe(c, demandedProduct, maxPrice);
+        assignment.setClientId(c.getId());
+        assignment.setProductId(demandedProduct.getId());
+        assignment.setBrokerIndex(brokerIndex);
+        assignment.commit();
+    }
+
+    //Counts a rejected request, and records the failed validation and sign up
+    private void reject(RequestOutcome outcome, ValidationEvent validation, SignUpEvent signUp) {
+        metrics.countOutcome(outcome);
+        validation.commit();
+        signUp.setOutcome(outcome.name());
+        signUp.commit();
+    }
+
+    /* Tells the brokers to freeze the participants of the auction, and returns the participants
+    together with the product, which are the keys the engine uses for ordering the auctions */
+    private List<Object> prepareBrokers(Product demandedProduct) {
+        List<Object> conflictKeys = new ArrayList<>();
+        conflictKeys.add(demandedProduct);
+        getBrokers().forEach(br -> conflictKeys.addAll(br.prepare(demandedProduct)));
+        return conflictKeys;
     }
 
     //Tells the brokers to start the auction
@@ -309,37 +561,191 @@ public class AuctionHouse {
         getBrokers().forEach(br->br.notifyObservers(biggestBid, demandedProduct));
     }
 
-    /*Update the brokers about the winning bid. Then, the brokers search for the observer that put that bid, then
-    return a String with the winner's name and bid */
-    private String updateWinner(double biggestBid, Product demandedProduct) {
-        StringBuilder result = new StringBuilder();
-        getBrokers().forEach(br -> result.append(br.notifyWinner(biggestBid, demandedProduct)));
-        return result.toString();
+    /*Update the brokers about the winning bid. Then, the brokers search for the observer that put that bid. Every
+    winner is written in the journal, and published as an event if needed */
+    private void updateWinner(double biggestBid, Product demandedProduct, int auctionNumber, boolean publish) {
+        List<Broker> crtBrokers = getBrokers();
+        for(int i = 0; i < crtBrokers.size(); i++) {
+            Observer winner = crtBrokers.get(i).awardWinner(biggestBid, demandedProduct);
+            if(winner == null) {
+                continue;
+            }
+
+            AuctionJournal crtJournal = journal;
+            if(crtJournal != null) {
+                int winnerId = winner instanceof Client ? ((Client)winner).getId() : -1;
+                crtJournal.append(new JournalRecord(auctionNumber, demandedProduct.getId(), winnerId, i,
+                        biggestBid, winner.getInfo().getCommission()));
+            }
+            if(publish) {
+                events.publish(AuctionEvent.sold(auctionNumber, demandedProduct, winner.getInfo().getName(), biggestBid));
+            }
+        }
+    }
+
+    /**
+     * Applies the outcome of an auction read from a journal, without running the auction. The product
+     * is sold and deleted, the broker receives his commission and the client his won auction
+     * @param productId the id of the sold product
+     * @param winnerId the id of the client who won, or -1 if the winner is not a client
+     * @param brokerIndex the position of the winner's broker among the brokers of the house
+     * @param price the selling price
+     * @param commission the commission of the winner
+     */
+    public void restoreOutcome(int productId, int winnerId, int brokerIndex, double price, double commission) {
+        Product soldProduct = products.find(productId);
+        if(soldProduct != null) {
+            soldProduct.setSellPrice(price);
+            soldProducts.add(soldProduct);
+            deleteProduct(soldProduct);
+        }
+
+        if(brokerIndex >= 0 && brokerIndex < brokers.size()) {
+            brokers.get(brokerIndex).restoreWin(commission * price);
+        }
+        synchronized(clients) {
+            if(winnerId >= 0 && winnerId < clients.size()) {
+                Client winner = clients.get(winnerId);
+                winner.setNoWonAuctions(winner.getNoWonAuctions() + 1);
+            }
+        }
+    }
+
+    /**
+     * Sets the journal receiving the outcome of every sold product
+     * @param journal the journal, or null for not writing the outcomes
+     */
+    public void setJournal(AuctionJournal journal) {
+        this.journal = journal;
     }
 
-    //Tells the broker to reset all the observers' information
-    private void reset() {
-        getBrokers().forEach(Broker::reset);
+    public AuctionJournal getJournal() {
+        return journal;
     }
 
+    //Tells the brokers to reset the information of the observers that took part in the auction
+    private void reset(Product demandedProduct) {
+        getBrokers().forEach(br -> br.reset(demandedProduct));
+    }
+
+    /**
+     * Gets the available products, from the current snapshot of the catalog
+     * @return an unmodifiable list with the products
+     */
     public List<Product> getProducts() {
-        lock.lock();
-        List<Product> list = new ArrayList<>(new HashSet<>(products));
-        lock.unlock();
-        return list;
+        return products.snapshot().getProducts();
     }
 
-    public List<Broker> getBrokers() {
-        List<Broker> brokers = new ArrayList<>();
-        employees.stream()
-                .filter(emp->emp instanceof Broker)
-                .forEach(emp->brokers.add((Broker) emp));
+    /**
+     * Gets the current snapshot of the catalog, together with its version
+     * @return an immutable snapshot of the catalog
+     */
+    public CatalogSnapshot getCatalogSnapshot() {
+        return products.snapshot();
+    }
+
+    /**
+     * Checks whether a product was added or deleted after a specific version of the catalog
+     * @param version the version known by the caller
+     * @return true if the catalog changed since that version
+     */
+    public boolean hasCatalogChangedSince(long version) {
+        return products.hasChangedSince(version);
+    }
+
+    /**
+     * Sets the engine used for running the auctions, after the auctions of the
+     * previous engine are finished. The worker threads of the previous engine are stopped
+     * @param engine the new auction engine
+     */
+    public void setEngine(AuctionEngine engine) {
+        AuctionEngine previous = this.engine;
+        previous.awaitIdle();
+        this.engine = engine;
+        if(previous != engine) {
+            try {
+                previous.shutdown();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Enables or disables the early end of the bidding. When enabled, an auction stops bidding at the first
+     * step, after the first one, in which no participant changed his bid and the biggest bid stayed the same,
+     * because every following step would repeat it. The winner, the price and the biggest bid are the same
+     * as after all the steps, only fewer steps are run and published as events. An auction that no
+     * participant can afford still runs its steps until they converge: skipping its bidding would have
+     * reported a different biggest bid for the unsold product, so that shortcut is deliberately left out
+     * @param earlyTermination true for ending the bidding early
+     */
+    public void setEarlyTermination(boolean earlyTermination) {
+        this.earlyTermination = earlyTermination;
+    }
+
+    /**
+     * Tells if the bidding of the auctions ends early
+     * @return true if the bidding ends as soon as the bids stop changing
+     */
+    public boolean isEarlyTermination() {
+        return earlyTermination;
+    }
+
+    /**
+     * Gets the engine used for running the auctions
+     * @return the current auction engine
+     */
+    public AuctionEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Waits until all the auctions that were started are finished, together with the tasks
+     * they submitted, so that the products they sold are deleted
+     */
+    public void awaitAuctions() {
+        engine.awaitIdle();
+        TaskExecutor.getInstance().awaitIdle();
+        events.flush();
+    }
 
-        return brokers;
+    /**
+     * Gets the bus receiving the events of the auctions, used for adding or removing sinks
+     * @return the event bus of the auction house
+     */
+    public EventBus getEvents() {
+        return events;
+    }
+
+    public List<Broker> getBrokers() {
+        return Collections.unmodifiableList(brokers);
     }
 
     public List<Auction> getAuctions() {
-        return auctions;
+        return auctions.getAuctions();
+    }
+
+    public List<Employee> getEmployees() {
+        return Collections.unmodifiableList(employees);
+    }
+
+    /**
+     * Gets the number of auctions started so far
+     * @return the number of organised auctions
+     */
+    public int getOrganisedAuctions() {
+        return organisedAuctions.get();
+    }
+
+    //Sets the number of auctions started before a snapshot was saved
+    void restoreOrganisedAuctions(int noAuctions) {
+        organisedAuctions.set(noAuctions);
+    }
+
+    //Records a request restored from a snapshot, so that it is still detected as a duplicate
+    void restoreRequest(int clientId, int productId) {
+        requests.add(clientId, productId);
     }
 
     public List<Product> getSoldProducts() {
@@ -356,10 +762,8 @@ public class AuctionHouse {
      * @throws InvalidProductRequest if the sum offered is too small
      */
     public Product findProduct(int productId, double maxPrice) throws UnknownProductException, InvalidProductRequest {
-        Product demandedProduct = products.stream()
-                .filter(prod -> prod.getId() == productId)
-                .findFirst()
-                .orElse(null);
+        //Only the stripe of the product is read locked
+        Product demandedProduct = products.find(productId);
 
         if(demandedProduct == null) {
             throw new UnknownProductException();
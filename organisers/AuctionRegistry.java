@@ -0,0 +1,85 @@
+package organisers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps the pending auctions indexed by the id of their product. Several
+ * auctions may be announced for the same product, in which case they are
+ * filled one after another, in the order they were added. The registry can
+ * be used by many signing up clients at once, without a global lock
+ */
+public class AuctionRegistry {
+
+    private final ConcurrentHashMap<Integer, Queue<Auction>> auctions = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a new pending auction
+     * @param auction the auction to be added
+     */
+    public void add(Auction auction) {
+        //The queue is created and updated atomically, so that it is not dropped by a concurrent removal
+        auctions.compute(auction.getIdProduct(), (productId, queue) -> {
+            Queue<Auction> productAuctions = queue == null ? new ConcurrentLinkedQueue<>() : queue;
+            productAuctions.add(auction);
+            return productAuctions;
+        });
+    }
+
+    /**
+     * Signs up a participant for the first auction of the product that is not full.
+     * If the participant completes the auction, the auction is removed from the registry
+     * and returned, so that only one caller starts it
+     * @param productId the id of the demanded product
+     * @return the auction that can be started, or null if there is no such auction
+     */
+    public Auction register(int productId) {
+        Queue<Auction> productAuctions = auctions.get(productId);
+        if(productAuctions == null) {
+            return null;
+        }
+
+        for(Auction auction : productAuctions) {
+            Auction.Registration registration = auction.register();
+            if(registration == Auction.Registration.READY) {
+                remove(auction);
+                return auction;
+            }
+            if(registration == Auction.Registration.REGISTERED) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes an auction from the registry
+     * @param auction the auction to be removed
+     */
+    public void remove(Auction auction) {
+        auctions.computeIfPresent(auction.getIdProduct(), (productId, queue) -> {
+            //Auctions are equal when they share the product, so the instance is removed by reference
+            queue.removeIf(crtAuction -> crtAuction == auction);
+            return queue.isEmpty() ? null : queue;
+        });
+    }
+
+    /**
+     * Gets all the pending auctions
+     * @return a new list with the pending auctions
+     */
+    public List<Auction> getAuctions() {
+        List<Auction> list = new ArrayList<>();
+        auctions.values().forEach(list::addAll);
+        return list;
+    }
+
+    /**
+     * Removes all the pending auctions
+     */
+    public void clear() {
+        auctions.clear();
+    }
+}
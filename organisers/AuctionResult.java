@@ -0,0 +1,64 @@
+package organisers;
+import products.Product;
+
+/**
+ * The outcome of a finished auction, made available to the caller
+ * through the completion handle returned by the auction engine
+ */
+public class AuctionResult {
+    private final Auction auction;
+    private final Product product;
+    private final int auctionNumber;
+    private final double biggestBid;
+    private final boolean sold;
+
+    /**
+     * Creates the result of an auction
+     * @param auction the auction that was run
+     * @param product the product the auction was organised for
+     * @param auctionNumber the order number of the auction in the house
+     * @param biggestBid the biggest bid from all the steps
+     * @param sold whether the product was sold
+     */
+    public AuctionResult(Auction auction, Product product, int auctionNumber, double biggestBid, boolean sold) {
+        this.auction = auction;
+        this.product = product;
+        this.auctionNumber = auctionNumber;
+        this.biggestBid = biggestBid;
+        this.sold = sold;
+    }
+
+    public Auction getAuction() {
+        return auction;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public int getAuctionNumber() {
+        return auctionNumber;
+    }
+
+    public double getBiggestBid() {
+        return biggestBid;
+    }
+
+    public boolean isSold() {
+        return sold;
+    }
+
+    /**
+     * Converts the result to string
+     * @return a string representation of the fields
+     */
+    @Override
+    public String toString() {
+        return "AuctionResult{" +
+                "auction=" + auction +
+                ", auctionNumber=" + auctionNumber +
+                ", biggestBid=" + biggestBid +
+                ", sold=" + sold +
+                '}';
+    }
+}
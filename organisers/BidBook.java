@@ -0,0 +1,128 @@
+package organisers;
+import clients.Client;
+import interfaces.Observer;
+import java.util.List;
+
+/**
+ * The state of the participants of a broker in a running auction, kept in columns of
+ * primitives, a row for each participant. The bids of a step, the biggest bid and the
+ * winner are computed with linear passes over the columns. While the book is open, the
+ * information objects of the participants are views over their rows, and when it is
+ * closed their values are copied back, so they are kept for the next auction
+ */
+public class BidBook {
+    private final Observer[] participants;
+    private final Information[] rows;
+
+    //True for the clients, whose bids are computed by the book
+    private final boolean[] computed;
+    private final double[] bidFactor;
+
+    //The number of auctions won by each participant, used for deciding between equal bids
+    private final int[] bidderWonAuctions;
+
+    final double[] maxAffordableBid;
+    final double[] crtBid;
+    final double[] maxAuctionBid;
+    final double[] commission;
+    final int[] noWonAuctions;
+    final boolean[] winner;
+
+    /**
+     * Opens a book for the participants of an auction, their information objects
+     * becoming views over the rows of the book
+     * @param observers the participants of the auction
+     * @param entryInfo the information kept by the broker for each participant
+     */
+    BidBook(List<Observer> observers, List<Information> entryInfo) {
+        int size = observers.size();
+        participants = observers.toArray(new Observer[0]);
+        rows = entryInfo.toArray(new Information[0]);
+        computed = new boolean[size];
+        bidFactor = new double[size];
+        bidderWonAuctions = new int[size];
+        maxAffordableBid = new double[size];
+        crtBid = new double[size];
+        maxAuctionBid = new double[size];
+        commission = new double[size];
+        noWonAuctions = new int[size];
+        winner = new boolean[size];
+
+        for(int row = 0; row < size; row++) {
+            if(participants[row] instanceof Client) {
+                Client client = (Client)participants[row];
+                computed[row] = true;
+                bidFactor[row] = client.getBidFactor();
+                bidderWonAuctions[row] = client.getNoWonAuctions();
+            }
+            rows[row].attach(this, row);
+        }
+    }
+
+    /**
+     * Computes the bids of all the participants for the current step, and adds them to a buffer
+     * @param bids the buffer in which the bids are added, in the order of the rows
+     */
+    void bid(BidBuffer bids) {
+        for(int row = 0; row < participants.length; row++) {
+            if(computed[row]) {
+                double newBid = Client.computeBid(maxAuctionBid[row], crtBid[row], maxAffordableBid[row], bidFactor[row]);
+                if(newBid != crtBid[row]) {
+                    bids.markChanged();
+                }
+                crtBid[row] = newBid;
+                noWonAuctions[row] = bidderWonAuctions[row];
+                bids.add(crtBid[row], noWonAuctions[row]);
+            } else {
+                //Other observers bid by themselves, reading their row through their information
+                bids.markChanged();
+                int index = bids.size();
+                participants[row].bid(bids);
+                crtBid[row] = bids.getAmount(index);
+                noWonAuctions[row] = bids.getNoWonAuctions(index);
+            }
+        }
+    }
+
+    /**
+     * Informs all the participants about the biggest bid of the step
+     * @param bid the biggest bid
+     */
+    void notifyParticipants(double bid) {
+        for(int row = 0; row < participants.length; row++) {
+            maxAuctionBid[row] = bid;
+            if(!computed[row]) {
+                participants[row].update(rows[row]);
+            }
+        }
+    }
+
+    /**
+     * Searches the participant who offered the winning bid. If more participants offered
+     * it, the one that won the most auctions is chosen, and among those the first one
+     * @param bid the winning bid
+     * @param threshold the maximum difference between two equal bids
+     * @return the row of the winner, or -1 if none of the participants offered the bid
+     */
+    int findWinner(double bid, double threshold) {
+        return BidReductions.getInstance().findWinner(crtBid, noWonAuctions, participants.length, bid, threshold);
+    }
+
+    /**
+     * Gets the participant of a row
+     * @param row the row of the participant
+     * @return the participant
+     */
+    Observer getParticipant(int row) {
+        return participants[row];
+    }
+
+    /**
+     * Closes the book, copying the rows back into the information objects
+     */
+    void close() {
+        for(Information info : rows) {
+            info.detach();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package organisers;
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of bids, kept as primitive arrays. Every bid is stored together
+ * with the number of auctions won by the bidder, used for deciding between equal bids.
+ * The buffer is cleared and filled again at every step, so no objects are created for the bids
+ */
+public class BidBuffer {
+    private double[] amounts;
+    private int[] noWonAuctions;
+    private int size;
+
+    //Set when a bidder offers a different sum than in the previous step
+    private boolean changed;
+
+    /**
+     * Creates an empty buffer with a default capacity
+     */
+    public BidBuffer() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty buffer
+     * @param capacity the number of bids that can be added before the buffer grows
+     */
+    public BidBuffer(int capacity) {
+        amounts = new double[Math.max(1, capacity)];
+        noWonAuctions = new int[amounts.length];
+    }
+
+    /**
+     * Adds a bid at the end of the buffer
+     * @param amount the sum offered
+     * @param wonAuctions the number of auctions won by the bidder
+     */
+    public void add(double amount, int wonAuctions) {
+        if(size == amounts.length) {
+            amounts = Arrays.copyOf(amounts, 2 * size);
+            noWonAuctions = Arrays.copyOf(noWonAuctions, 2 * size);
+        }
+        amounts[size] = amount;
+        noWonAuctions[size] = wonAuctions;
+        size++;
+    }
+
+    /**
+     * Gets the sum offered by a bid
+     * @param index the position of the bid
+     * @return the sum offered
+     */
+    public double getAmount(int index) {
+        return amounts[index];
+    }
+
+    /**
+     * Gets the number of auctions won by the author of a bid
+     * @param index the position of the bid
+     * @return the number of won auctions
+     */
+    public int getNoWonAuctions(int index) {
+        return noWonAuctions[index];
+    }
+
+    /**
+     * Gets the biggest sum offered by the bids starting from a position
+     * @param from the position of the first bid considered
+     * @return the biggest sum, or 0 if there are no such bids
+     */
+    public double max(int from) {
+        return BidReductions.getInstance().max(amounts, from, size);
+    }
+
+    /**
+     * Gets the number of bids in the buffer
+     * @return the number of bids
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Records that a bid of the current step differs from the previous bid of its bidder,
+     * or that the bidder is not known to bid the same sum again
+     */
+    void markChanged() {
+        changed = true;
+    }
+
+    /**
+     * Tells if a bid changed since the previous step. If no bid changed and the biggest bid
+     * is the same, the next steps repeat this one, so the auction has converged
+     * @return true if a bid of the current step differs from the previous one
+     */
+    public boolean hasChanged() {
+        return changed;
+    }
+
+    /**
+     * Removes all the bids, keeping the allocated arrays
+     */
+    public void clear() {
+        size = 0;
+        changed = false;
+    }
+}
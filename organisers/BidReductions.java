@@ -0,0 +1,52 @@
+package organisers;
+import interfaces.BidReduction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Chooses the implementation of the reductions over the bids, once, when the class is loaded.
+ * The implementation based on the Vector API is loaded by name, because it is only compiled by
+ * the vector profile of the build and its module is only present when the program runs with
+ * "--add-modules jdk.incubator.vector". Without them, or if the "auction.vectorBids" system
+ * property is false, the scalar implementation is used
+ */
+public class BidReductions {
+
+    private static final String VECTOR_CLASS = "simd.VectorBidReduction";
+
+    private static final BidReduction VECTOR = loadVector();
+    private static final BidReduction INSTANCE = VECTOR != null
+            && Boolean.parseBoolean(System.getProperty("auction.vectorBids", "true")) ? VECTOR : new ScalarBidReduction();
+
+    /**
+     * Private constructor for hiding the default one
+     */
+    private BidReductions() {
+    }
+
+    /**
+     * Gets the implementation used by the auctions
+     * @return the vector implementation if it is available and enabled, or the scalar one
+     */
+    public static BidReduction getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the vector implementation, whether it is used or not, for comparing it with the scalar one
+     * @return the vector implementation, or null if the Vector API is not available
+     */
+    public static BidReduction vector() {
+        return VECTOR;
+    }
+
+    private static BidReduction loadVector() {
+        try {
+            return (BidReduction) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+        } catch(ReflectiveOperationException | LinkageError e) {
+            //The module of the Vector API was not added, or the class was not compiled
+            Logger.getLogger(BidReductions.class.getName()).log(Level.FINE, "Using the scalar bid reductions", e);
+            return null;
+        }
+    }
+}
@@ -2,13 +2,17 @@ package organisers;
 import clients.Client;
 import clients.NaturalPerson;
 import exceptions.DuplicateRequestException;
-import helper.Color;
+import events.ColoredTextSink;
+import helper.IntHashMap;
 import interfaces.Observer;
 import interfaces.Subject;
+import metrics.AuctionMetrics;
 import multithreading.DeleteTask;
-import org.apache.commons.math3.util.Pair;
+import multithreading.TaskExecutor;
 import products.Product;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -26,6 +30,13 @@ public class Broker extends Employee implements Subject {
     //An additional list kept by the broker with information about each observer
     ArrayList<Information> entryInfo;
 
+    //The same subscriptions, grouped by the id of the demanded product
+    private final IntHashMap<Subscribers> subscriptions = new IntHashMap<>();
+
+    /* The participants frozen for the auctions that are ready, grouped by the id of the product.
+    Auctions for the same product are run in order, so the first group belongs to the running one */
+    private final IntHashMap<ArrayDeque<Subscribers>> frozenParticipants = new IntHashMap<>();
+
     //cash obtained from commissions
     private double cash;
     private int noWonAuctions;
@@ -73,10 +84,55 @@ public class Broker extends Employee implements Subject {
      * Resets all the information kept by the broker
      * for his clients
      */
-    public void reset() {
+    public synchronized void reset() {
         observers.forEach(client->client.update(new Information()));
     }
 
+    /**
+     * Resets the information kept by the broker only for the clients
+     * that demanded a specific product
+     * @param demandedProduct the product of the finished auction
+     */
+    public synchronized void reset(Product demandedProduct) {
+        Subscribers participants = participantsOf(demandedProduct);
+        if(participants != null) {
+            //Keep the bidding state in the information objects, for the next auction of the product
+            if(participants.book != null) {
+                participants.book.close();
+                participants.book = null;
+            }
+            participants.observers.forEach(client->client.update(new Information()));
+        }
+
+        //The auction is over, so its frozen participants are dropped
+        ArrayDeque<Subscribers> frozen = frozenParticipants.get(demandedProduct.getId());
+        if(frozen != null) {
+            frozen.poll();
+            if(frozen.isEmpty()) {
+                frozenParticipants.remove(demandedProduct.getId());
+            }
+        }
+    }
+
+    /**
+     * Freezes the observers that demanded a product, when an auction for it is ready. The
+     * observers that subscribe afterwards do not take part in this auction, even if it runs later
+     * @param demandedProduct the product of the auction
+     * @return the observers that take part in the auction
+     */
+    public synchronized List<Observer> prepare(Product demandedProduct) {
+        Subscribers participants = subscriptions.get(demandedProduct.getId());
+        Subscribers frozen = participants == null ? new Subscribers() : participants.copy();
+
+        ArrayDeque<Subscribers> productAuctions = frozenParticipants.get(demandedProduct.getId());
+        if(productAuctions == null) {
+            productAuctions = new ArrayDeque<>();
+            frozenParticipants.put(demandedProduct.getId(), productAuctions);
+        }
+        productAuctions.add(frozen);
+        return Collections.unmodifiableList(frozen.observers);
+    }
+
     /**
      *
      * Applies a commission for every observer
@@ -117,7 +173,7 @@ public class Broker extends Employee implements Subject {
      * @param o the added observer
      */
     @Override
-    public void add(Observer o) {
+    public synchronized void add(Observer o) {
         observers.add(o);
         Information observerInfo = new Information();
         if(o instanceof Client) {
@@ -132,7 +188,7 @@ public class Broker extends Employee implements Subject {
      * @param o the observer to be added
      * @param maxPrice the maximum price he is willing to pay
      */
-    public void add(Observer o, double maxPrice) {
+    public synchronized void add(Observer o, double maxPrice) {
         add(o);
         /* Set the maximum affordable bid for the corresponding information object
         with the sum received as parameter */
@@ -147,16 +203,35 @@ public class Broker extends Employee implements Subject {
      * @param maxPrice the maximum price the observer is willing to pay
      * @throws DuplicateRequestException if the same product has already been requested by the same observer
      */
-    public void add(Observer o, Product p, double maxPrice) throws DuplicateRequestException {
-        for(int i = 0; i < observers.size(); i++) {
-            //If the same observer is found in the list, and he requested the same product, throw an exception
-            if(observers.get(i).equals(o) && entryInfo.get(i).getDemandedProduct().equals(p))
-                throw new DuplicateRequestException();
-        }
+    public synchronized void add(Observer o, Product p, double maxPrice) throws DuplicateRequestException {
+        //If the same observer already requested the same product, throw an exception
+        Subscribers participants = subscriptions.get(p.getId());
+        if(participants != null && participants.observers.contains(o))
+            throw new DuplicateRequestException();
 
         //Else, add the observer and set his demanded product accordingly
+        subscribe(o, p, maxPrice);
+    }
+
+    /**
+     * Adds the observer for the demanded product without searching for a duplicate request,
+     * used by the auction house after it validated the request itself
+     * @param o the observer to be added
+     * @param p the product the observer wants
+     * @param maxPrice the maximum price the observer is willing to pay
+     */
+    synchronized void subscribe(Observer o, Product p, double maxPrice) {
+        Subscribers participants = subscriptions.get(p.getId());
         add(o, maxPrice);
-        entryInfo.get(entryInfo.size() - 1).setDemandedProduct(p);
+        Information observerInfo = entryInfo.get(entryInfo.size() - 1);
+        observerInfo.setDemandedProduct(p);
+
+        //Index the new subscription by the demanded product
+        if(participants == null) {
+            participants = new Subscribers();
+            subscriptions.put(p.getId(), participants);
+        }
+        participants.add(o, observerInfo);
     }
 
     /**
@@ -165,12 +240,18 @@ public class Broker extends Employee implements Subject {
      * @param demandedProduct The product demanded by the observers
      */
     public void start(Product demandedProduct) {
-        for(int i = 0; i < observers.size(); i++) {
-            /* If the current observer wants the demanded product, then update his information, because
-            he will participate in the upcoming auction */
-            if(entryInfo.get(i).getDemandedProduct().getId() == demandedProduct.getId()) {
-                observers.get(i).update(entryInfo.get(i));
-            }
+        Subscribers participants = participantsOf(demandedProduct);
+        if(participants == null) {
+            return;
+        }
+
+        //The bidding state of the participants is kept in a bid book while the auction runs
+        participants.book = new BidBook(participants.observers, participants.entryInfo);
+
+        /* Only the observers that want the demanded product are updated with their information,
+        because they will participate in the upcoming auction */
+        for(int i = 0; i < participants.size(); i++) {
+            participants.observers.get(i).update(participants.entryInfo.get(i));
         }
     }
 
@@ -181,10 +262,15 @@ public class Broker extends Employee implements Subject {
      */
     @Override
     public void notifyObservers(double biggestBid, Product demandedProduct) {
-        for(int i = 0; i < observers.size(); i++) {
-            if(demandedProduct.equals(getInfo(i).getDemandedProduct())) {
-                notifyObserver(observers.get(i), biggestBid);
-            }
+        Subscribers participants = participantsOf(demandedProduct);
+        if(participants == null) {
+            return;
+        }
+
+        if(participants.book != null) {
+            participants.book.notifyParticipants(biggestBid);
+        } else {
+            participants.observers.forEach(obs -> notifyObserver(obs, biggestBid));
         }
     }
 
@@ -205,8 +291,18 @@ public class Broker extends Employee implements Subject {
      * @param o the Observer to be removed
      */
     @Override
-    public void removeObserver(Observer o) {
-        observers.remove(o);
+    public synchronized void removeObserver(Observer o) {
+        //Remove every subscription of the observer, keeping the two lists aligned
+        for(int i = observers.size() - 1; i >= 0; i--) {
+            if(observers.get(i).equals(o)) {
+                Product demandedProduct = entryInfo.get(i).getDemandedProduct();
+                if(demandedProduct != null) {
+                    removeSubscription(demandedProduct.getId(), o);
+                }
+                observers.remove(i);
+                entryInfo.remove(i);
+            }
+        }
     }
 
     /**
@@ -216,24 +312,59 @@ public class Broker extends Employee implements Subject {
      * @return a string representation of the winner
      */
     public String notifyWinner(double bid, Product demandedProduct) {
+        Observer winner = awardWinner(bid, demandedProduct);
+
+        //If the winner is not a client of this broker return an empty string
+        if(winner == null) {
+            return "";
+        }
+        return ColoredTextSink.soldMessage(demandedProduct, winner.getInfo().getName(), bid);
+    }
+
+    /**
+     * Computes the winner of the auction among the clients of this broker, then sells him the product
+     * @param bid the winning bid, that is, the biggest bid from all steps
+     * @param demandedProduct the demanded product by the participants
+     * @return the winner, or null if the winner is not a client of this broker
+     */
+    public Observer awardWinner(double bid, Product demandedProduct) {
+        long start = System.nanoTime();
+        Observer winner = award(bid, demandedProduct);
+        AuctionMetrics.getInstance().getWinnerLatency().record(System.nanoTime() - start);
+        return winner;
+    }
+
+    //Finds the winner among the clients of this broker and sells him the product
+    private Observer award(double bid, Product demandedProduct) {
         int noMaxWonAuctions = -1;
         Observer winner = null;
 
+        Subscribers participants = participantsOf(demandedProduct);
+        if(participants == null) {
+            return null;
+        }
+
         /*Apply a percentage commission for the bidders. The sum will be extracted only
         from the winner */
-        applyCommission();
+        participants.observers.forEach(this::applyCommission);
+
+        //Increment the number of appearances for everyone
+        participants.observers.forEach(participant -> participant.update(false));
 
         /* Search for the observer who bid the maximum sum. If more are found, then
         the winner will be decided based on the one that won the most auctions */
-        for(int i = 0; i < observers.size(); i++) {
-            if(demandedProduct.equals(entryInfo.get(i).getDemandedProduct())) {
-                //Increment the number of appearances for everyone
-                observers.get(i).update(false);
-                if(Math.abs(getInfo(i).getCrtBid() - bid) < THRESHOLD){
-                    int crtNoWonAuctions = getInfo(i).getNoWonAuctions();
+        if(participants.book != null) {
+            int winnerRow = participants.book.findWinner(bid, THRESHOLD);
+            if(winnerRow >= 0) {
+                winner = participants.book.getParticipant(winnerRow);
+            }
+        } else {
+            for(Observer participant : participants.observers) {
+                if(Math.abs(participant.getInfo().getCrtBid() - bid) < THRESHOLD){
+                    int crtNoWonAuctions = participant.getInfo().getNoWonAuctions();
                     if(crtNoWonAuctions > noMaxWonAuctions) {
                         noMaxWonAuctions = crtNoWonAuctions;
-                        winner = observers.get(i);
+                        winner = participant;
                     }
                 }
             }
@@ -241,12 +372,16 @@ public class Broker extends Employee implements Subject {
 
         //the winner is found
         if(winner != null) {
-            //Set the sell price for the product
+            /* Set the sell price for the product. If another broker also found a winner, the product
+            was already deleted by that broker */
+            boolean alreadySold = demandedProduct.getSellPrice() != 0;
             demandedProduct.setSellPrice(bid);
 
-            //Take the cash from the commission
-            cash += winner.getInfo().getCommission() * bid;
-            noWonAuctions++;
+            //Take the cash from the commission, auctions for other products may finish at the same time
+            synchronized(this) {
+                cash += winner.getInfo().getCommission() * bid;
+                noWonAuctions++;
+            }
 
             //Notify the winner about the result
             winner.getInfo().setWinner(true);
@@ -254,17 +389,30 @@ public class Broker extends Employee implements Subject {
 
             //Add the sold product to a separate list, and delete it from the products available
             addSoldProduct(demandedProduct);
-            Thread t = new Thread(deleteAuctionProduct(demandedProduct));
-            t.start();
-
-            //Return a string representation for the selling process
-            String productType = Product.getType(demandedProduct);
-            return "\t" + Color.PURPLE + productType + " \"" + demandedProduct.getName() + "\" has been sold to "
-                    + winner.getInfo().getName() + " for " + bid + " dollars." + Color.RESET + "\n";
+            if(!alreadySold) {
+                TaskExecutor.getInstance().submit(deleteAuctionProduct(demandedProduct));
+            }
         }
+        return winner;
+    }
 
-        //If the winner is not a client of this broker return an empty string
-        return "";
+    /**
+     * Sets the cash and the won auctions of the broker, read from a snapshot
+     * @param cash the cash obtained from commissions
+     * @param noWonAuctions the number of auctions won by the clients of this broker
+     */
+    synchronized void restoreTotals(double cash, int noWonAuctions) {
+        this.cash = cash;
+        this.noWonAuctions = noWonAuctions;
+    }
+
+    /**
+     * Records an auction won by a client of this broker, read from a journal
+     * @param commissionCash the cash the broker obtained from the winner's commission
+     */
+    synchronized void restoreWin(double commissionCash) {
+        cash += commissionCash;
+        noWonAuctions++;
     }
 
     /**
@@ -273,23 +421,48 @@ public class Broker extends Employee implements Subject {
      * @return a List of doubles including all bids
      */
     public List<Double> bid(Product auctionProd) {
-        List<Double> bids = new ArrayList<>();
-
-        for(int i = 0; i < observers.size(); i++) {
-            //Take bids only from observers who want this product
-            if(auctionProd.equals(entryInfo.get(i).getDemandedProduct())) {
-                //Extract the pair of bid and number of won auctions
-                Pair<Double, Integer> crtClientBid = observers.get(i).bid();
-                //Include those in the information field for the current observer
-                getInfo(i).setCrtBid(crtClientBid.getFirst());
-                getInfo(i).setNoWonAuctions(crtClientBid.getSecond());
-                //Add the bid to the list
-                bids.add(crtClientBid.getFirst());
-            }
+        BidBuffer buffer = new BidBuffer();
+        bid(auctionProd, buffer);
+
+        List<Double> bids = new ArrayList<>(buffer.size());
+        for(int i = 0; i < buffer.size(); i++) {
+            bids.add(buffer.getAmount(i));
         }
         return bids;
     }
 
+    /**
+     * Method that requests all the clients to bid for the specified product, adding
+     * their bids at the end of a buffer owned by the caller
+     * @param auctionProd the product the clients must bid for
+     * @param bids the buffer in which the bids are added
+     */
+    public void bid(Product auctionProd, BidBuffer bids) {
+        //Take bids only from observers who want this product
+        Subscribers participants = participantsOf(auctionProd);
+        if(participants == null) {
+            return;
+        }
+
+        //If the auction was started, the bids are computed by the bid book
+        if(participants.book != null) {
+            participants.book.bid(bids);
+            return;
+        }
+
+        for(Observer participant : participants.observers) {
+            //Add the bid and the number of won auctions to the buffer
+            int index = bids.size();
+            participant.bid(bids);
+            if(bids.getAmount(index) != participant.getInfo().getCrtBid()) {
+                bids.markChanged();
+            }
+            //Include those in the information field for the current observer
+            participant.getInfo().setCrtBid(bids.getAmount(index));
+            participant.getInfo().setNoWonAuctions(bids.getNoWonAuctions(index));
+        }
+    }
+
     /**
      * Adds the sold product to a list of sold products
      * @param product the product to be added
@@ -302,7 +475,7 @@ public class Broker extends Employee implements Subject {
      * Gets a list of clients from the observer list
      * @return a list of clients
      */
-    public List<Client> getClients() {
+    public synchronized List<Client> getClients() {
         List<Client> clientsList = new ArrayList<>();
         observers.forEach(obs -> clientsList.add((Client) obs));
         return clientsList;
@@ -320,7 +493,7 @@ public class Broker extends Employee implements Subject {
      * Gets the sum of money this broker has obtained
      * @return the broker's cash
      */
-    public double getCash() {
+    public synchronized double getCash() {
         return cash;
     }
 
@@ -328,18 +501,65 @@ public class Broker extends Employee implements Subject {
      * Gets the broker's number of won auctions
      * @return the number of won auctions
      */
-    public int getNoWonAuctions() {
+    public synchronized int getNoWonAuctions() {
         return noWonAuctions;
     }
 
+    /* Gets the participants of the auction for a product: the frozen ones if the auction is ready,
+    or else the current subscribers */
+    private synchronized Subscribers participantsOf(Product demandedProduct) {
+        ArrayDeque<Subscribers> frozen = frozenParticipants.get(demandedProduct.getId());
+        if(frozen != null && !frozen.isEmpty()) {
+            return frozen.peek();
+        }
+        return subscriptions.get(demandedProduct.getId());
+    }
+
+    //Removes the subscription of an observer for a product, dropping the group when it becomes empty
+    private void removeSubscription(int productId, Observer o) {
+        Subscribers participants = subscriptions.get(productId);
+        if(participants != null) {
+            participants.remove(o);
+            if(participants.size() == 0) {
+                subscriptions.remove(productId);
+            }
+        }
+    }
+
     /**
-     * Gets the information corresponding to the observer with the specified index
-     * in the observers list
-     * @param i the index of the observer
-     * @return the information associated with the observer
+     * The observers subscribed for the same product, kept together with
+     * their information objects, in the order they subscribed
      */
-    private Information getInfo(int i) {
-        return observers.get(i).getInfo();
+    private static class Subscribers {
+        final List<Observer> observers = new ArrayList<>();
+        final List<Information> entryInfo = new ArrayList<>();
+
+        //The bid book of the running auction, only set for the participants of a started auction
+        BidBook book;
+
+        void add(Observer o, Information info) {
+            observers.add(o);
+            entryInfo.add(info);
+        }
+
+        void remove(Observer o) {
+            int index = observers.indexOf(o);
+            if(index >= 0) {
+                observers.remove(index);
+                entryInfo.remove(index);
+            }
+        }
+
+        int size() {
+            return observers.size();
+        }
+
+        Subscribers copy() {
+            Subscribers snapshot = new Subscribers();
+            snapshot.observers.addAll(observers);
+            snapshot.entryInfo.addAll(entryInfo);
+            return snapshot;
+        }
     }
 }
 
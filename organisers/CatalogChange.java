@@ -0,0 +1,57 @@
+package organisers;
+import helper.ChangeType;
+import products.Product;
+
+/**
+ * A change of the catalog, numbered with the version of the catalog it produced
+ */
+public class CatalogChange {
+    private final long sequence;
+    private final ChangeType type;
+    private final Product product;
+
+    /**
+     * Creates a change of the catalog
+     * @param sequence the version of the catalog after the change
+     * @param type the type of the change
+     * @param product the added or deleted product, or null if the catalog was cleared
+     */
+    CatalogChange(long sequence, ChangeType type, Product product) {
+        this.sequence = sequence;
+        this.type = type;
+        this.product = product;
+    }
+
+    /**
+     * Gets the sequence number of the change
+     * @return the version of the catalog after the change
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the type of the change
+     * @return the type of the change
+     */
+    public ChangeType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the product of the change
+     * @return the added or deleted product, or null if the catalog was cleared
+     */
+    public Product getProduct() {
+        return product;
+    }
+
+    /**
+     * Converts the change to a string
+     * @return string concatenation of the sequence, the type and the product
+     */
+    @Override
+    public String toString() {
+        return sequence + " " + type + " " + product;
+    }
+}
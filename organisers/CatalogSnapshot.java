@@ -0,0 +1,80 @@
+package organisers;
+import products.Product;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An immutable view of the catalog, taken at a specific version. A snapshot is published
+ * by the change that produced its version, and shared by all the readers until the next
+ * change, so it can be read without any lock
+ */
+public class CatalogSnapshot {
+    private final long version;
+    private final ProductTrie trie;
+    private final List<Product> products;
+
+    /**
+     * Creates a snapshot of the catalog
+     * @param version the version of the catalog
+     * @param trie the products available at that version
+     */
+    CatalogSnapshot(long version, ProductTrie trie) {
+        this.version = version;
+        this.trie = trie;
+        this.products = new ProductList(trie);
+    }
+
+    /**
+     * Gets the version of the catalog this snapshot was taken at
+     * @return the version of the snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the products of the snapshot. The list is a view over the snapshot, so no product is copied
+     * @return an unmodifiable list with the products, in the order of their ids
+     */
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    //The products of the snapshot, from which the next snapshot is built
+    ProductTrie getTrie() {
+        return trie;
+    }
+
+    /**
+     * An unmodifiable list backed by the products of a snapshot
+     */
+    private static final class ProductList extends AbstractList<Product> {
+        private final ProductTrie trie;
+
+        ProductList(ProductTrie trie) {
+            this.trie = trie;
+        }
+
+        @Override
+        public Product get(int index) {
+            return trie.getAt(index);
+        }
+
+        @Override
+        public int size() {
+            return trie.size();
+        }
+
+        @Override
+        public Iterator<Product> iterator() {
+            return trie.iterator();
+        }
+
+        @Override
+        public void forEach(Consumer<? super Product> action) {
+            trie.forEach(action);
+        }
+    }
+}
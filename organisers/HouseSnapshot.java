@@ -0,0 +1,402 @@
+package organisers;
+import clients.Client;
+import clients.LegalPerson;
+import clients.NaturalPerson;
+import helper.ColorType;
+import helper.CompanyType;
+import interfaces.Observer;
+import products.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Saves the state of the auction house in a compact binary file, and restores it
+ * without parsing the JSON configuration again. The file holds the products, the
+ * clients, the employees with the subscriptions of the brokers, and the pending
+ * auctions. It starts with a header, written uncompressed, that tells the version
+ * of the format and whether the rest of the file is compressed
+ */
+public class HouseSnapshot {
+
+    //"AHSN", followed by the version of the format
+    private static final int MAGIC = 0x4148534E;
+    private static final int VERSION = 1;
+
+    //The type codes of the products, clients and employees
+    private static final byte PRODUCT = 0;
+    private static final byte FURNITURE = 1;
+    private static final byte JEWELRY = 2;
+    private static final byte PAINTING = 3;
+    private static final byte CLOTHING = 4;
+    private static final byte ANTIQUE = 5;
+    private static final byte CLIENT = 0;
+    private static final byte NATURAL_PERSON = 1;
+    private static final byte LEGAL_PERSON = 2;
+    private static final byte ADMINISTRATOR = 0;
+    private static final byte BROKER = 1;
+
+    /**
+     * Private constructor for hiding the default one
+     */
+    private HouseSnapshot() {
+    }
+
+    /**
+     * Saves the state of the auction house, after the running auctions are finished
+     * @param crtHouse the auction house
+     * @param path the file of the snapshot
+     * @param compressed true for compressing the file
+     * @throws IOException if the file can not be written
+     */
+    public static void save(AuctionHouse crtHouse, Path path, boolean compressed) throws IOException {
+        crtHouse.awaitAuctions();
+
+        try(OutputStream file = Files.newOutputStream(path)) {
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeBoolean(compressed);
+            header.flush();
+
+            OutputStream body = compressed ? new GZIPOutputStream(file, 1 << 16) : file;
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(body, 1 << 16));
+            writeHouse(crtHouse, out);
+            out.flush();
+            if(body instanceof GZIPOutputStream) {
+                ((GZIPOutputStream)body).finish();
+            }
+        }
+    }
+
+    /**
+     * Replaces the state of the auction house with the state saved in a snapshot
+     * @param crtHouse the auction house
+     * @param path the file of the snapshot
+     * @throws IOException if the file can not be read, or it is not a snapshot of a known version
+     */
+    public static void restore(AuctionHouse crtHouse, Path path) throws IOException {
+        try(InputStream file = Files.newInputStream(path)) {
+            DataInputStream header = new DataInputStream(file);
+            if(header.readInt() != MAGIC) {
+                throw new IOException("The file is not a snapshot of the auction house");
+            }
+            int version = header.readInt();
+            if(version != VERSION) {
+                throw new IOException("Unknown snapshot version " + version);
+            }
+            boolean compressed = header.readBoolean();
+
+            InputStream body = compressed ? new GZIPInputStream(file, 1 << 16) : file;
+            DataInputStream in = new DataInputStream(new BufferedInputStream(body, 1 << 16));
+            crtHouse.resetAll();
+            readHouse(crtHouse, in);
+        }
+    }
+
+    private static void writeHouse(AuctionHouse crtHouse, DataOutputStream out) throws IOException {
+        //The available and the sold products are written in the same table, referenced by their position
+        List<Product> available = crtHouse.getProducts();
+        List<Product> sold = new ArrayList<>(crtHouse.getSoldProducts());
+        Map<Product, Integer> productIndex = new IdentityHashMap<>();
+        List<Product> table = new ArrayList<>();
+        for(Product p : available) {
+            productIndex.put(p, table.size());
+            table.add(p);
+        }
+        for(Product p : sold) {
+            if(!productIndex.containsKey(p)) {
+                productIndex.put(p, table.size());
+                table.add(p);
+            }
+        }
+
+        out.writeInt(table.size());
+        for(Product p : table) {
+            writeProduct(out, p);
+        }
+        out.writeInt(available.size());
+        out.writeInt(sold.size());
+        for(Product p : sold) {
+            out.writeInt(productIndex.get(p));
+        }
+
+        //The id of a client is its position, so the clients are written in order
+        List<Client> clients;
+        synchronized(crtHouse.getClients()) {
+            clients = new ArrayList<>(crtHouse.getClients());
+        }
+        out.writeInt(clients.size());
+        for(Client c : clients) {
+            writeClient(out, c);
+        }
+
+        List<Employee> employees = crtHouse.getEmployees();
+        out.writeInt(employees.size());
+        for(Employee e : employees) {
+            writeEmployee(out, e, productIndex);
+        }
+
+        List<Auction> auctions = crtHouse.getAuctions();
+        out.writeInt(auctions.size());
+        for(Auction auction : auctions) {
+            out.writeInt(auction.getId());
+            out.writeInt(auction.getIdProduct());
+            out.writeInt(auction.getNoMaxSteps());
+            out.writeInt(auction.getNoParticipants());
+            out.writeInt(auction.getNoSignedUpParticipants());
+        }
+        out.writeInt(crtHouse.getOrganisedAuctions());
+    }
+
+    private static void readHouse(AuctionHouse crtHouse, DataInputStream in) throws IOException {
+        Product[] table = new Product[in.readInt()];
+        for(int i = 0; i < table.length; i++) {
+            table[i] = readProduct(in);
+        }
+        //The available products are the first ones in the table
+        int noAvailable = in.readInt();
+        for(int i = 0; i < noAvailable; i++) {
+            crtHouse.add(table[i]);
+        }
+        int noSold = in.readInt();
+        for(int i = 0; i < noSold; i++) {
+            crtHouse.addSoldProduct(table[in.readInt()]);
+        }
+
+        int noClients = in.readInt();
+        for(int i = 0; i < noClients; i++) {
+            crtHouse.add(readClient(in));
+        }
+
+        int noEmployees = in.readInt();
+        for(int i = 0; i < noEmployees; i++) {
+            readEmployee(in, crtHouse, table);
+        }
+
+        int noAuctions = in.readInt();
+        for(int i = 0; i < noAuctions; i++) {
+            int id = in.readInt();
+            Auction auction = new Auction(in.readInt(), in.readInt(), in.readInt());
+            auction.setId(id);
+            int noSignedUp = in.readInt();
+            for(int j = 0; j < noSignedUp; j++) {
+                auction.incrementParticipants();
+            }
+            crtHouse.add(auction);
+        }
+        crtHouse.restoreOrganisedAuctions(in.readInt());
+    }
+
+    private static void writeProduct(DataOutputStream out, Product p) throws IOException {
+        if(p instanceof Furniture) {
+            out.writeByte(FURNITURE);
+            writeString(out, ((Furniture)p).getType());
+            writeString(out, ((Furniture)p).getMaterial());
+        } else if(p instanceof Jewelry) {
+            out.writeByte(JEWELRY);
+            writeString(out, ((Jewelry)p).getMaterial());
+            out.writeBoolean(((Jewelry)p).hasPreciousStone());
+        } else if(p instanceof Painting) {
+            out.writeByte(PAINTING);
+            writeString(out, ((Painting)p).getPainterName());
+            writeString(out, ((Painting)p).getColors() == null ? null : ((Painting)p).getColors().name());
+        } else if(p instanceof Clothing) {
+            out.writeByte(CLOTHING);
+            writeString(out, ((Clothing)p).getDesigner());
+            writeString(out, ((Clothing)p).getMaterial());
+        } else if(p instanceof Antique) {
+            out.writeByte(ANTIQUE);
+            out.writeInt(((Antique)p).getAge());
+            writeString(out, ((Antique)p).getOrigin());
+        } else {
+            out.writeByte(PRODUCT);
+        }
+        out.writeInt(p.getId());
+        writeString(out, p.getName());
+        out.writeDouble(p.getSellPrice());
+        out.writeDouble(p.getMinPrice());
+        out.writeInt(p.getYear());
+    }
+
+    private static Product readProduct(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        Product p;
+        switch(type) {
+            case FURNITURE:
+                p = new Furniture(readString(in), readString(in));
+                break;
+            case JEWELRY:
+                p = new Jewelry(readString(in), in.readBoolean());
+                break;
+            case PAINTING:
+                String painterName = readString(in);
+                String colors = readString(in);
+                p = new Painting(painterName, colors == null ? null : ColorType.valueOf(colors));
+                break;
+            case CLOTHING:
+                p = new Clothing(readString(in), readString(in));
+                break;
+            case ANTIQUE:
+                p = new Antique(in.readInt(), readString(in));
+                break;
+            case PRODUCT:
+                p = new Product();
+                break;
+            default:
+                throw new IOException("Unknown product type " + type);
+        }
+        p.setId(in.readInt());
+        p.setName(readString(in));
+        p.setSellPrice(in.readDouble());
+        p.setMinPrice(in.readDouble());
+        p.setYear(in.readInt());
+        return p;
+    }
+
+    private static void writeClient(DataOutputStream out, Client c) throws IOException {
+        if(c instanceof NaturalPerson) {
+            out.writeByte(NATURAL_PERSON);
+            out.writeLong(((NaturalPerson)c).getBirthDate().toEpochDay());
+        } else if(c instanceof LegalPerson) {
+            out.writeByte(LEGAL_PERSON);
+            writeString(out, ((LegalPerson)c).getCompany() == null ? null : ((LegalPerson)c).getCompany().name());
+            out.writeDouble(((LegalPerson)c).getSocialCapital());
+        } else {
+            out.writeByte(CLIENT);
+        }
+        writeString(out, c.getName());
+        writeString(out, c.getAddress());
+        out.writeInt(c.getNoParticipation());
+        out.writeInt(c.getNoWonAuctions());
+    }
+
+    private static Client readClient(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        Client c;
+        switch(type) {
+            case NATURAL_PERSON:
+                c = new NaturalPerson(LocalDate.ofEpochDay(in.readLong()));
+                break;
+            case LEGAL_PERSON:
+                String company = readString(in);
+                c = new LegalPerson(company == null ? null : CompanyType.valueOf(company), in.readDouble());
+                break;
+            case CLIENT:
+                c = new Client();
+                break;
+            default:
+                throw new IOException("Unknown client type " + type);
+        }
+        c.setName(readString(in));
+        c.setAddress(readString(in));
+        c.setNoParticipation(in.readInt());
+        c.setNoWonAuctions(in.readInt());
+        //The id is given by the auction house, as the position of the client
+        c.setId(-1);
+        return c;
+    }
+
+    private static void writeEmployee(DataOutputStream out, Employee e, Map<Product, Integer> productIndex)
+            throws IOException {
+        out.writeByte(e instanceof Broker ? BROKER : ADMINISTRATOR);
+        writeString(out, e.getName());
+        out.writeInt(e.getYearsOfExperience());
+        out.writeDouble(e.getRating());
+        if(!(e instanceof Broker)) {
+            return;
+        }
+
+        Broker br = (Broker)e;
+        synchronized(br) {
+            out.writeDouble(br.getCash());
+            out.writeInt(br.getNoWonAuctions());
+
+            //Only the clients can be restored, the other observers are skipped
+            int noSubscriptions = 0;
+            for(Observer o : br.observers) {
+                if(o instanceof Client) noSubscriptions++;
+            }
+            out.writeInt(noSubscriptions);
+            for(int i = 0; i < br.observers.size(); i++) {
+                if(!(br.observers.get(i) instanceof Client)) {
+                    continue;
+                }
+                Information info = br.entryInfo.get(i);
+                Product demandedProduct = info.getDemandedProduct();
+                Integer index = demandedProduct == null ? null : productIndex.get(demandedProduct);
+                out.writeInt(((Client)br.observers.get(i)).getId());
+                out.writeInt(index == null ? -1 : index);
+                writeString(out, info.getName());
+                out.writeDouble(info.getMaxAffordableBid());
+                out.writeDouble(info.getCrtBid());
+                out.writeDouble(info.getMaxAuctionBid());
+                out.writeDouble(info.getCommission());
+                out.writeInt(info.getNoWonAuctions());
+                out.writeBoolean(info.isWinner());
+            }
+        }
+    }
+
+    private static void readEmployee(DataInputStream in, AuctionHouse crtHouse, Product[] table) throws IOException {
+        byte type = in.readByte();
+        String name = readString(in);
+        int yearsOfExperience = in.readInt();
+        double rating = in.readDouble();
+        if(type == ADMINISTRATOR) {
+            Administrator adm = Administrator.getInstance();
+            adm.setName(name);
+            adm.setYearsOfExperience(yearsOfExperience);
+            adm.setRating(rating);
+            crtHouse.add(adm);
+            return;
+        }
+        if(type != BROKER) {
+            throw new IOException("Unknown employee type " + type);
+        }
+
+        Broker br = new Broker(name, yearsOfExperience, rating);
+        br.restoreTotals(in.readDouble(), in.readInt());
+        int noSubscriptions = in.readInt();
+        for(int i = 0; i < noSubscriptions; i++) {
+            Client c = crtHouse.getClients().get(in.readInt());
+            int index = in.readInt();
+            String infoName = readString(in);
+            double maxAffordableBid = in.readDouble();
+
+            //The subscriptions for a product are indexed again, and recorded as requests of the house
+            if(index >= 0) {
+                br.subscribe(c, table[index], maxAffordableBid);
+                crtHouse.restoreRequest(c.getId(), table[index].getId());
+            } else {
+                br.add(c, maxAffordableBid);
+            }
+            Information info = br.entryInfo.get(br.entryInfo.size() - 1);
+            info.setName(infoName);
+            info.setCrtBid(in.readDouble());
+            info.setMaxAuctionBid(in.readDouble());
+            info.setCommission(in.readDouble());
+            info.setNoWonAuctions(in.readInt());
+            info.setWinner(in.readBoolean());
+        }
+        crtHouse.add(br);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if(s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
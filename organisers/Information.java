@@ -3,7 +3,8 @@ import products.Product;
 
 /**
  * The class used for mediating the communication between the brokers and
- * the clients
+ * the clients. During an auction, the bidding state is kept in the bid book
+ * of the broker, and the information is a view over its row
  */
 public class Information {
 
@@ -27,6 +28,10 @@ public class Information {
     private int noWonAuctions;
     private String name;
 
+    //The bid book holding the bidding state while an auction runs, or null
+    private BidBook book;
+    private int row;
+
     /**
      * Default constructor for setting the winner attribute to false
      * and demanded product to null(not recommended)
@@ -36,12 +41,44 @@ public class Information {
         demandedProduct = null;
     }
 
+    /**
+     * Makes the information a view over a row of a bid book, which receives the bidding state
+     * @param book the bid book of the running auction
+     * @param row the row of the observer having this information
+     */
+    void attach(BidBook book, int row) {
+        book.maxAffordableBid[row] = maxAffordableBid;
+        book.crtBid[row] = crtBid;
+        book.maxAuctionBid[row] = maxAuctionBid;
+        book.commission[row] = commission;
+        book.noWonAuctions[row] = noWonAuctions;
+        book.winner[row] = winner;
+        this.book = book;
+        this.row = row;
+    }
+
+    /**
+     * Copies the bidding state back from the bid book, when the auction is over
+     */
+    void detach() {
+        if(book == null) {
+            return;
+        }
+        maxAffordableBid = book.maxAffordableBid[row];
+        crtBid = book.crtBid[row];
+        maxAuctionBid = book.maxAuctionBid[row];
+        commission = book.commission[row];
+        noWonAuctions = book.noWonAuctions[row];
+        winner = book.winner[row];
+        book = null;
+    }
+
     /**
      * Decides whether the client is the winner of the auction
      * @return client's status
      */
     public boolean isWinner() {
-        return winner;
+        return book == null ? winner : book.winner[row];
     }
 
     /**
@@ -49,7 +86,8 @@ public class Information {
      * @param commission the value of the commission
      */
     public void setCommission(double commission) {
-        this.commission = commission;
+        if(book != null) book.commission[row] = commission;
+        else this.commission = commission;
     }
 
     /**
@@ -57,7 +95,8 @@ public class Information {
      * @param noWonAuctions the number of won actions
      */
     public void setNoWonAuctions(int noWonAuctions) {
-        this.noWonAuctions = noWonAuctions;
+        if(book != null) book.noWonAuctions[row] = noWonAuctions;
+        else this.noWonAuctions = noWonAuctions;
     }
 
     /**
@@ -65,7 +104,8 @@ public class Information {
      * @param winner decides whether the client with this information won
      */
     public void setWinner(boolean winner) {
-        this.winner = winner;
+        if(book != null) book.winner[row] = winner;
+        else this.winner = winner;
     }
 
     public void setDemandedProduct(Product demandedProduct) {
@@ -73,15 +113,18 @@ public class Information {
     }
 
     public void setMaxAffordableBid(double maxAffordableBid) {
-        this.maxAffordableBid = maxAffordableBid;
+        if(book != null) book.maxAffordableBid[row] = maxAffordableBid;
+        else this.maxAffordableBid = maxAffordableBid;
     }
 
     public void setCrtBid(double crtBid) {
-        this.crtBid = crtBid;
+        if(book != null) book.crtBid[row] = crtBid;
+        else this.crtBid = crtBid;
     }
 
     public void setMaxAuctionBid(double maxAuctionBid) {
-        this.maxAuctionBid = maxAuctionBid;
+        if(book != null) book.maxAuctionBid[row] = maxAuctionBid;
+        else this.maxAuctionBid = maxAuctionBid;
     }
 
     public void setName(String name) {
@@ -93,23 +136,23 @@ public class Information {
     }
 
     public double getMaxAffordableBid() {
-        return maxAffordableBid;
+        return book == null ? maxAffordableBid : book.maxAffordableBid[row];
     }
 
     public double getCrtBid() {
-        return crtBid;
+        return book == null ? crtBid : book.crtBid[row];
     }
 
     public double getMaxAuctionBid() {
-        return maxAuctionBid;
+        return book == null ? maxAuctionBid : book.maxAuctionBid[row];
     }
 
     public int getNoWonAuctions() {
-        return noWonAuctions;
+        return book == null ? noWonAuctions : book.noWonAuctions[row];
     }
 
     public double getCommission() {
-        return commission;
+        return book == null ? commission : book.commission[row];
     }
 
     public String getName() {
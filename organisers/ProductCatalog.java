@@ -0,0 +1,259 @@
+package organisers;
+import helper.ChangeType;
+import helper.IntHashMap;
+import products.Product;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The products available in the auction house, indexed by their id. The products are
+ * spread over several stripes, each one guarded by its own read/write lock, so that the
+ * readers do not block each other, and the writers of unrelated products do not contend.
+ * Every change increments the version of the catalog, and publishes an immutable snapshot
+ * of the new version, which shares most of its structure with the previous one. The readers
+ * of the whole catalog read the last snapshot without locking or copying anything.
+ * The last changes are also kept in a ring, so that a reader which already knows a
+ * recent version only needs to read what changed since then
+ */
+public class ProductCatalog {
+
+    private static final int STRIPES = 16;
+
+    //How many of the last changes are kept, must be a power of two
+    private static final int CHANGES = 1024;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    //Incremented on every reset, so that the delete tasks of the previous products are ignored
+    private volatile int generation;
+
+    /* The snapshot of the last version, replaced on every change inside the write lock of the changed
+    stripe, or of all the stripes for a clear. The writers of different stripes may replace it at the
+    same time, so it is replaced with a compare and set */
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>(new CatalogSnapshot(0, ProductTrie.EMPTY));
+
+    //The last changes, the change with sequence s being placed at index s % CHANGES
+    private final AtomicReferenceArray<CatalogChange> changes = new AtomicReferenceArray<>(CHANGES);
+
+    /**
+     * Creates an empty catalog
+     */
+    public ProductCatalog() {
+        for(int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Adds a product, unless another product with the same id is available. If the product
+     * was deleted before being added, it is deleted again right away
+     * @param p the product to be added
+     * @return true if the product was added
+     */
+    public boolean add(Product p) {
+        Stripe stripe = stripeOf(p.getId());
+        stripe.lock.writeLock().lock();
+        try {
+            if(stripe.products.putIfAbsent(p.getId(), p) == null) {
+                publish(ChangeType.ADDED, p);
+                if(stripe.pendingDeletes.remove(p.getId()) != null) {
+                    stripe.products.remove(p.getId());
+                    publish(ChangeType.REMOVED, p);
+                }
+                return true;
+            }
+            return false;
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes a product. If the product is not available, it is deleted when it is added,
+     * unless the catalog is cleared before
+     * @param p the product to be deleted
+     */
+    public void delete(Product p) {
+        delete(p, generation);
+    }
+
+    /**
+     * Deletes a product, if the catalog was not cleared since a specific generation. If the product
+     * is not available, the deletion is kept and applied when the product is added, so the caller
+     * never waits, and the threads of the task pool are never blocked by a missing product
+     * @param p the product to be deleted
+     * @param crtGeneration the generation of the catalog when the deletion was decided
+     */
+    public void delete(Product p, int crtGeneration) {
+        Stripe stripe = stripeOf(p.getId());
+        stripe.lock.writeLock().lock();
+        try {
+            if(crtGeneration != generation) {
+                return;
+            }
+            if(stripe.products.remove(p.getId()) != null) {
+                publish(ChangeType.REMOVED, p);
+            } else {
+                stripe.pendingDeletes.put(p.getId(), p);
+            }
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches a product by id
+     * @param productId the id of the product
+     * @return the product, or null if it is not available
+     */
+    public Product find(int productId) {
+        Stripe stripe = stripeOf(productId);
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.products.get(productId);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copies all the available products
+     * @return a new list with the products, in the order of their ids
+     */
+    public List<Product> values() {
+        return new ArrayList<>(snapshot().getProducts());
+    }
+
+    /**
+     * Gets the current snapshot of the catalog. The snapshot is published by the last change,
+     * so it is only read, without any lock
+     * @return an immutable snapshot of the catalog
+     */
+    public CatalogSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Gets the current generation of the catalog
+     * @return the number of times the catalog was cleared
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the current version of the catalog
+     * @return the number of changes made to the catalog
+     */
+    public long getVersion() {
+        return snapshot.get().getVersion();
+    }
+
+    /**
+     * Checks whether the catalog changed after a specific version
+     * @param knownVersion the version known by the caller
+     * @return true if a product was added or deleted since that version
+     */
+    public boolean hasChangedSince(long knownVersion) {
+        return getVersion() != knownVersion;
+    }
+
+    /**
+     * Gets the changes made to the catalog after a specific version. The changes that are
+     * still being made by other threads are not included, they are read next time
+     * @param knownVersion the version known by the caller
+     * @return the changes in the order they were made, or null if some of them are no
+     * longer kept, or the catalog was cleared, and the whole catalog must be read again
+     */
+    public List<CatalogChange> changesSince(long knownVersion) {
+        long crtVersion = getVersion();
+        if(crtVersion - knownVersion > CHANGES) {
+            return null;
+        }
+
+        List<CatalogChange> list = new ArrayList<>((int)(crtVersion - knownVersion));
+        for(long sequence = knownVersion + 1; sequence <= crtVersion; sequence++) {
+            CatalogChange change = changes.get(indexOf(sequence));
+            if(change == null || change.getSequence() < sequence) {
+                //The version was incremented, but the change is not stored yet
+                break;
+            }
+            if(change.getSequence() > sequence || change.getType() == ChangeType.CLEARED) {
+                return null;
+            }
+            list.add(change);
+        }
+        return list;
+    }
+
+    /**
+     * Removes all the products, and drops the deletions of the products that were not added
+     */
+    public void clear() {
+        //All the stripes are locked, so no product is added between the clear and the published empty snapshot
+        for(Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+        }
+        try {
+            generation++;
+            for(Stripe stripe : stripes) {
+                stripe.products.clear();
+                stripe.pendingDeletes.clear();
+            }
+            publish(ChangeType.CLEARED, null);
+        } finally {
+            for(Stripe stripe : stripes) {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /* Publishes the snapshot of the next version, which copies only the path to the changed product,
+    and stores the change that produced it */
+    private void publish(ChangeType type, Product p) {
+        CatalogSnapshot crtSnapshot;
+        CatalogSnapshot nextSnapshot;
+        do {
+            crtSnapshot = snapshot.get();
+            ProductTrie products;
+            switch(type) {
+                case ADDED:
+                    products = crtSnapshot.getTrie().with(p);
+                    break;
+                case REMOVED:
+                    products = crtSnapshot.getTrie().without(p.getId());
+                    break;
+                default:
+                    products = ProductTrie.EMPTY;
+                    break;
+            }
+            nextSnapshot = new CatalogSnapshot(crtSnapshot.getVersion() + 1, products);
+        } while(!snapshot.compareAndSet(crtSnapshot, nextSnapshot));
+
+        long sequence = nextSnapshot.getVersion();
+        changes.set(indexOf(sequence), new CatalogChange(sequence, type, p));
+    }
+
+    private static int indexOf(long sequence) {
+        return (int)(sequence & (CHANGES - 1));
+    }
+
+    private Stripe stripeOf(int productId) {
+        //Consecutive ids are placed in different stripes
+        return stripes[productId & (STRIPES - 1)];
+    }
+
+    /**
+     * A part of the catalog, with its own lock
+     */
+    private static class Stripe {
+        final IntHashMap<Product> products = new IntHashMap<>();
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        //The products deleted before being added, deleted again when they are added
+        final IntHashMap<Product> pendingDeletes = new IntHashMap<>();
+    }
+}
@@ -0,0 +1,250 @@
+package organisers;
+import products.Product;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * An immutable map of the products by their id, kept as a trie with 32 children per
+ * node, each level being indexed by 5 bits of the id. A change copies only the path from
+ * the root to the changed product, at most 7 nodes, and shares all the other nodes with
+ * the previous trie, so a new version of the catalog is published without copying it.
+ * The products are kept in the order of their ids, taken as unsigned numbers
+ */
+final class ProductTrie {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    //Enough levels for the 32 bits of an id, the first level using only the 2 highest bits
+    private static final int LEVELS = (Integer.SIZE + BITS - 1) / BITS;
+
+    static final ProductTrie EMPTY = new ProductTrie(null);
+
+    private final Node root;
+
+    private ProductTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets the number of products
+     * @return the number of products
+     */
+    int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    /**
+     * Searches a product by id
+     * @param id the id of the product
+     * @return the product, or null if the trie does not contain it
+     */
+    Product get(int id) {
+        Node node = root;
+        for(int level = 0; node != null; level++) {
+            int bit = 1 << digit(id, level);
+            if((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object child = node.children[Integer.bitCount(node.bitmap & (bit - 1))];
+            if(level == LEVELS - 1) {
+                return (Product) child;
+            }
+            node = (Node) child;
+        }
+        return null;
+    }
+
+    /**
+     * Gets a product by its position in the order of the ids
+     * @param index the position of the product
+     * @return the product
+     * @throws IndexOutOfBoundsException if the position is not smaller than the size
+     */
+    Product getAt(int index) {
+        if(index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        Node node = root;
+        for(int level = 0; ; level++) {
+            for(Object child : node.children) {
+                int childSize = level == LEVELS - 1 ? 1 : ((Node) child).size;
+                if(index < childSize) {
+                    if(level == LEVELS - 1) {
+                        return (Product) child;
+                    }
+                    node = (Node) child;
+                    break;
+                }
+                index -= childSize;
+            }
+        }
+    }
+
+    /**
+     * Adds a product, replacing the product with the same id
+     * @param p the product to be added
+     * @return a new trie with the product
+     */
+    ProductTrie with(Product p) {
+        return new ProductTrie(insert(root, 0, p));
+    }
+
+    /**
+     * Removes a product
+     * @param id the id of the product
+     * @return a new trie without the product, or the same trie if it does not contain it
+     */
+    ProductTrie without(int id) {
+        if(get(id) == null) {
+            return this;
+        }
+        return new ProductTrie(remove(root, 0, id));
+    }
+
+    /**
+     * Gives every product to an action, in the order of the ids
+     * @param action the action receiving the products
+     */
+    void forEach(Consumer<? super Product> action) {
+        if(root != null) {
+            forEach(root, 0, action);
+        }
+    }
+
+    /**
+     * Iterates over the products, in the order of the ids
+     * @return an iterator over the products
+     */
+    Iterator<Product> iterator() {
+        return new ProductIterator(root);
+    }
+
+    private static int digit(int id, int level) {
+        return (id >>> (BITS * (LEVELS - 1 - level))) & MASK;
+    }
+
+    private static Node insert(Node node, int level, Product p) {
+        int id = p.getId();
+        int bit = 1 << digit(id, level);
+        int bitmap = node == null ? 0 : node.bitmap;
+        Object[] children = node == null ? new Object[0] : node.children;
+        int index = Integer.bitCount(bitmap & (bit - 1));
+
+        if((bitmap & bit) != 0) {
+            Object[] copy = children.clone();
+            if(level == LEVELS - 1) {
+                copy[index] = p;
+                return new Node(bitmap, copy, node.size);
+            }
+            Node oldChild = (Node) children[index];
+            Node newChild = insert(oldChild, level + 1, p);
+            copy[index] = newChild;
+            return new Node(bitmap, copy, node.size + newChild.size - oldChild.size);
+        }
+
+        Object[] copy = new Object[children.length + 1];
+        System.arraycopy(children, 0, copy, 0, index);
+        System.arraycopy(children, index, copy, index + 1, children.length - index);
+        copy[index] = level == LEVELS - 1 ? p : insert(null, level + 1, p);
+        return new Node(bitmap | bit, copy, (node == null ? 0 : node.size) + 1);
+    }
+
+    //Removes a product known to be in the subtree, returning null for a subtree left empty
+    private static Node remove(Node node, int level, int id) {
+        int bit = 1 << digit(id, level);
+        int index = Integer.bitCount(node.bitmap & (bit - 1));
+        Node newChild = level == LEVELS - 1 ? null : remove((Node) node.children[index], level + 1, id);
+
+        if(newChild == null) {
+            if(node.size == 1) {
+                return null;
+            }
+            Object[] copy = new Object[node.children.length - 1];
+            System.arraycopy(node.children, 0, copy, 0, index);
+            System.arraycopy(node.children, index + 1, copy, index, copy.length - index);
+            return new Node(node.bitmap & ~bit, copy, node.size - 1);
+        }
+        Object[] copy = node.children.clone();
+        copy[index] = newChild;
+        return new Node(node.bitmap, copy, node.size - 1);
+    }
+
+    private static void forEach(Node node, int level, Consumer<? super Product> action) {
+        for(Object child : node.children) {
+            if(level == LEVELS - 1) {
+                action.accept((Product) child);
+            } else {
+                forEach((Node) child, level + 1, action);
+            }
+        }
+    }
+
+    /**
+     * A node of the trie. The bitmap tells which of the 32 children exist, and only those are
+     * stored, in the order of their digits. The children of the last level are the products
+     */
+    private static final class Node {
+        final int bitmap;
+        final Object[] children;
+
+        //The number of products below the node
+        final int size;
+
+        Node(int bitmap, Object[] children, int size) {
+            this.bitmap = bitmap;
+            this.children = children;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Walks the trie depth first, keeping the current position on every level
+     */
+    private static final class ProductIterator implements Iterator<Product> {
+        private final Node[] nodes = new Node[LEVELS];
+        private final int[] positions = new int[LEVELS];
+        private Product next;
+
+        ProductIterator(Node root) {
+            nodes[0] = root;
+            next = root == null ? null : advance(0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Product next() {
+            if(next == null) {
+                throw new NoSuchElementException();
+            }
+            Product crtProduct = next;
+            next = advance(LEVELS - 1);
+            return crtProduct;
+        }
+
+        //Finds the next product, starting from the current position of a level
+        private Product advance(int level) {
+            while(level >= 0) {
+                Node node = nodes[level];
+                if(node == null || positions[level] == node.children.length) {
+                    //The node is done, so continue with the next child of its parent
+                    level--;
+                    continue;
+                }
+                Object child = node.children[positions[level]++];
+                if(level == LEVELS - 1) {
+                    return (Product) child;
+                }
+                nodes[level + 1] = (Node) child;
+                positions[level + 1] = 0;
+                level++;
+            }
+            return null;
+        }
+    }
+}
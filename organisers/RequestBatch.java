@@ -0,0 +1,91 @@
+package organisers;
+import java.util.Arrays;
+
+/**
+ * A reusable batch of requests, kept as primitive arrays. Each request holds the id of
+ * the client, the id of the demanded product and the maximum price the client is willing
+ * to offer. The batch is cleared and filled again, so no objects are created for the requests
+ */
+public class RequestBatch {
+    private int[] clientIds;
+    private int[] productIds;
+    private double[] maxPrices;
+    private int size;
+
+    /**
+     * Creates an empty batch with a default capacity
+     */
+    public RequestBatch() {
+        this(1024);
+    }
+
+    /**
+     * Creates an empty batch
+     * @param capacity the number of requests that can be added before the batch grows
+     */
+    public RequestBatch(int capacity) {
+        clientIds = new int[Math.max(1, capacity)];
+        productIds = new int[clientIds.length];
+        maxPrices = new double[clientIds.length];
+    }
+
+    /**
+     * Adds a request at the end of the batch
+     * @param clientId the id of the client
+     * @param productId the id of the demanded product
+     * @param maxPrice the maximum price the client is willing to offer
+     */
+    public void add(int clientId, int productId, double maxPrice) {
+        if(size == clientIds.length) {
+            clientIds = Arrays.copyOf(clientIds, 2 * size);
+            productIds = Arrays.copyOf(productIds, 2 * size);
+            maxPrices = Arrays.copyOf(maxPrices, 2 * size);
+        }
+        clientIds[size] = clientId;
+        productIds[size] = productId;
+        maxPrices[size] = maxPrice;
+        size++;
+    }
+
+    /**
+     * Gets the client of a request
+     * @param index the position of the request
+     * @return the id of the client
+     */
+    public int getClientId(int index) {
+        return clientIds[index];
+    }
+
+    /**
+     * Gets the product of a request
+     * @param index the position of the request
+     * @return the id of the demanded product
+     */
+    public int getProductId(int index) {
+        return productIds[index];
+    }
+
+    /**
+     * Gets the maximum price of a request
+     * @param index the position of the request
+     * @return the maximum price the client is willing to offer
+     */
+    public double getMaxPrice(int index) {
+        return maxPrices[index];
+    }
+
+    /**
+     * Gets the number of requests in the batch
+     * @return the number of requests
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the requests, keeping the arrays for the next batch
+     */
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,86 @@
+package organisers;
+import helper.LongHashSet;
+
+/**
+ * Keeps every (client, product) pair that was requested in the auction house, so that
+ * a duplicate request is detected in constant time. Each pair is packed in a single long
+ * value, and the values are spread over several independently locked sets, so that
+ * concurrent sign ups rarely wait for each other
+ */
+public class RequestIndex {
+
+    private static final int STRIPES = 64;
+
+    private final LongHashSet[] stripes = new LongHashSet[STRIPES];
+
+    /**
+     * Creates an empty index
+     */
+    public RequestIndex() {
+        for(int i = 0; i < STRIPES; i++) {
+            stripes[i] = new LongHashSet();
+        }
+    }
+
+    /**
+     * Records a request, if the same client did not already request the same product
+     * @param clientId the id of the client
+     * @param productId the id of the demanded product
+     * @return true if the request is new, false if it is a duplicate
+     */
+    public boolean add(int clientId, int productId) {
+        long key = pack(clientId, productId);
+        LongHashSet stripe = stripeOf(key);
+        synchronized(stripe) {
+            return stripe.add(key);
+        }
+    }
+
+    /**
+     * Checks if a client already requested a product
+     * @param clientId the id of the client
+     * @param productId the id of the demanded product
+     * @return true if the request was recorded before
+     */
+    public boolean contains(int clientId, int productId) {
+        long key = pack(clientId, productId);
+        LongHashSet stripe = stripeOf(key);
+        synchronized(stripe) {
+            return stripe.contains(key);
+        }
+    }
+
+    /**
+     * Forgets a request, so that it can be sent again
+     * @param clientId the id of the client
+     * @param productId the id of the demanded product
+     */
+    public void remove(int clientId, int productId) {
+        long key = pack(clientId, productId);
+        LongHashSet stripe = stripeOf(key);
+        synchronized(stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    /**
+     * Forgets all the requests
+     */
+    public void clear() {
+        for(LongHashSet stripe : stripes) {
+            synchronized(stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    //The client id is kept in the high half and the product id in the low half
+    private static long pack(int clientId, int productId) {
+        return ((long) clientId << 32) | (productId & 0xFFFFFFFFL);
+    }
+
+    private LongHashSet stripeOf(long key) {
+        int h = (int) (key ^ (key >>> 32));
+        return stripes[(h ^ (h >>> 7)) & (STRIPES - 1)];
+    }
+}
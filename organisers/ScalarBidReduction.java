@@ -0,0 +1,33 @@
+package organisers;
+import interfaces.BidReduction;
+
+/**
+ * The reductions over the bids computed one row at a time. Used when the Vector API is
+ * not available, and by the vector implementation for the short arrays and the tails
+ */
+public class ScalarBidReduction implements BidReduction {
+
+    @Override
+    public double max(double[] amounts, int from, int to) {
+        double max = 0;
+        for(int i = from; i < to; i++) {
+            if(amounts[i] > max) {
+                max = amounts[i];
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public int findWinner(double[] bids, int[] noWonAuctions, int length, double bid, double threshold) {
+        int winnerRow = -1;
+        int noMaxWonAuctions = -1;
+        for(int row = 0; row < length; row++) {
+            if(Math.abs(bids[row] - bid) < threshold && noWonAuctions[row] > noMaxWonAuctions) {
+                noMaxWonAuctions = noWonAuctions[row];
+                winnerRow = row;
+            }
+        }
+        return winnerRow;
+    }
+}
@@ -19,6 +19,22 @@ public class Antique extends Product {
         this.origin = origin;
     }
 
+    /**
+     * Gets the age of the antique
+     * @return the age of the antique
+     */
+    public int getAge() {
+        return age;
+    }
+
+    /**
+     * Gets the country of origin
+     * @return the country of origin
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -19,6 +19,22 @@ public class Clothing extends Product {
         this.material = material;
     }
 
+    /**
+     * Gets the designer's name
+     * @return the designer's name
+     */
+    public String getDesigner() {
+        return designer;
+    }
+
+    /**
+     * Gets the material of the clothing
+     * @return the material of the clothing
+     */
+    public String getMaterial() {
+        return material;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
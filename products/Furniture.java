@@ -18,6 +18,22 @@ public class Furniture extends Product {
         this.material = material;
     }
 
+    /**
+     * Gets the type of furniture
+     * @return the type of furniture
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the material of the furniture
+     * @return the material of the furniture
+     */
+    public String getMaterial() {
+        return material;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -18,6 +18,22 @@ public class Jewelry extends Product {
         this.preciousStone = preciousStone;
     }
 
+    /**
+     * Gets the material of the jewelry
+     * @return the material of the jewelry
+     */
+    public String getMaterial() {
+        return material;
+    }
+
+    /**
+     * Checks if a precious stone is used
+     * @return true if the jewelry has a precious stone
+     */
+    public boolean hasPreciousStone() {
+        return preciousStone;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -19,6 +19,22 @@ public class Painting extends Product {
         this.colors = colors;
     }
 
+    /**
+     * Gets the name of the painter
+     * @return the name of the painter
+     */
+    public String getPainterName() {
+        return painterName;
+    }
+
+    /**
+     * Gets the type of color used for the painting
+     * @return the type of color used
+     */
+    public ColorType getColors() {
+        return colors;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -17,36 +17,54 @@ public class ProductFactory implements AbstractFactory<Product> {
      */
     @Override
     public Product create(List<String> params) throws UnknownProductException {
+        return create(params.get(0), params.get(1), Double.parseDouble(params.get(2)),
+                Integer.parseInt(params.get(3)), params.get(4), params.get(5));
+    }
+
+    /**
+     * Method that creates a new product from parameters that are already converted,
+     * so that the readers do not convert the numbers to strings and back
+     * @param productType the subtype of the product
+     * @param name the name of the product
+     * @param minPrice the minimum price of the product
+     * @param year the year of the product
+     * @param additionalInfo1 the first attribute of the subtype
+     * @param additionalInfo2 the second attribute of the subtype
+     * @return the newly created product
+     * @throws UnknownProductException if the subtype is invalid
+     */
+    public Product create(String productType, String name, double minPrice, int year,
+                          String additionalInfo1, String additionalInfo2) throws UnknownProductException {
 
         //Use the builder
         Product crtProduct = new ProductBuilder()
-                .withName(params.get(1))
-                .withMinPrice(Double.parseDouble(params.get(2)))
-                .withYear(Integer.parseInt(params.get(3)))
+                .withName(name)
+                .withMinPrice(minPrice)
+                .withYear(year)
                 .build();
 
         //Then based on the subtype, read the next attributes
-        switch(params.get(0)) {
+        switch(productType) {
             /* Use copyTo method to copy the information from the previously created product to the one corresponding
             to a specific subtype */
             case "painting":
-                Painting crtPainting = new Painting(params.get(4), ColorType.valueOf(params.get(5).toUpperCase()));
+                Painting crtPainting = new Painting(additionalInfo1, ColorType.valueOf(additionalInfo2.toUpperCase()));
                 crtProduct.copyTo(crtPainting);
                 return crtPainting;
             case "jewelry":
-                Jewelry crtJewelry = new Jewelry(params.get(4), Boolean.parseBoolean(params.get(5)));
+                Jewelry crtJewelry = new Jewelry(additionalInfo1, Boolean.parseBoolean(additionalInfo2));
                 crtProduct.copyTo(crtJewelry);
                 return crtJewelry;
             case "furniture":
-                Furniture crtFurniture = new Furniture(params.get(4), params.get(5));
+                Furniture crtFurniture = new Furniture(additionalInfo1, additionalInfo2);
                 crtProduct.copyTo(crtFurniture);
                 return crtFurniture;
             case "clothing":
-                Clothing crtClothing = new Clothing(params.get(4), params.get(5));
+                Clothing crtClothing = new Clothing(additionalInfo1, additionalInfo2);
                 crtProduct.copyTo(crtClothing);
                 return crtClothing;
             case "antique":
-                Antique crtAnt = new Antique(Integer.parseInt(params.get(4)), params.get(5));
+                Antique crtAnt = new Antique(Integer.parseInt(additionalInfo1), additionalInfo2);
                 crtProduct.copyTo(crtAnt);
                 return crtAnt;
             default:
@@ -0,0 +1,41 @@
+package profiling;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The base of the Java Flight Recorder events of the auction house. Every event carries
+ * the product it concerns and, when known, the number of the auction, so that a recording
+ * can be correlated with the logs and the journal of the house. The events are only
+ * committed when a recording enables them; otherwise creating, timing and committing them
+ * costs nothing once the code is compiled. The stack traces are not recorded, the events
+ * being placed on known paths
+ */
+@Category("Auction House")
+@StackTrace(false)
+public abstract class AuctionHouseEvent extends Event {
+
+    //Protected, because the recorder ignores the private fields of a superclass
+    @Label("Product Id")
+    protected int productId = -1;
+
+    @Label("Auction Id")
+    protected int auctionId = -1;
+
+    /**
+     * Sets the product the event is about
+     * @param productId the id of the product
+     */
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    /**
+     * Sets the auction the event belongs to
+     * @param auctionId the number of the auction
+     */
+    public void setAuctionId(int auctionId) {
+        this.auctionId = auctionId;
+    }
+}
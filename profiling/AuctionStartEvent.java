@@ -0,0 +1,35 @@
+package profiling;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The start of an auction, while the brokers send the minimum price to their participants
+ */
+@Name("auction.AuctionStart")
+@Label("Auction Start")
+@Description("The brokers preparing their participants for an auction")
+public class AuctionStartEvent extends AuctionHouseEvent {
+
+    @Label("Participants")
+    private int participants;
+
+    @Label("Max Steps")
+    private int maxSteps;
+
+    /**
+     * Sets the number of participants of the auction
+     * @param participants the number of participants
+     */
+    public void setParticipants(int participants) {
+        this.participants = participants;
+    }
+
+    /**
+     * Sets the number of bidding steps of the auction
+     * @param maxSteps the maximum number of steps
+     */
+    public void setMaxSteps(int maxSteps) {
+        this.maxSteps = maxSteps;
+    }
+}
@@ -0,0 +1,57 @@
+package profiling;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A bidding step of an auction, from the request of the bids until the brokers are told the biggest one
+ */
+@Name("auction.BidStep")
+@Label("Bidding Step")
+@Description("One step of an auction")
+public class BidStepEvent extends AuctionHouseEvent {
+
+    @Label("Step")
+    private int step;
+
+    @Label("Participants")
+    private int participants;
+
+    @Label("Bids")
+    private int bids;
+
+    @Label("Biggest Bid")
+    private double biggestBid;
+
+    /**
+     * Sets the number of the step
+     * @param step the step, starting from 0
+     */
+    public void setStep(int step) {
+        this.step = step;
+    }
+
+    /**
+     * Sets the number of participants of the auction
+     * @param participants the number of participants
+     */
+    public void setParticipants(int participants) {
+        this.participants = participants;
+    }
+
+    /**
+     * Sets the number of bids received in the step
+     * @param bids the number of bids
+     */
+    public void setBids(int bids) {
+        this.bids = bids;
+    }
+
+    /**
+     * Sets the biggest bid after the step
+     * @param biggestBid the biggest bid so far
+     */
+    public void setBiggestBid(double biggestBid) {
+        this.biggestBid = biggestBid;
+    }
+}
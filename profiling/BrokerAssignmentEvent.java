@@ -0,0 +1,35 @@
+package profiling;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The subscription of a client to a randomly chosen broker
+ */
+@Name("auction.BrokerAssignment")
+@Label("Broker Assignment")
+@Description("A client subscribed to a broker for a product")
+public class BrokerAssignmentEvent extends AuctionHouseEvent {
+
+    @Label("Client Id")
+    private int clientId;
+
+    @Label("Broker Index")
+    private int brokerIndex;
+
+    /**
+     * Sets the assigned client
+     * @param clientId the id of the client
+     */
+    public void setClientId(int clientId) {
+        this.clientId = clientId;
+    }
+
+    /**
+     * Sets the broker chosen for the client
+     * @param brokerIndex the position of the broker among the brokers of the house
+     */
+    public void setBrokerIndex(int brokerIndex) {
+        this.brokerIndex = brokerIndex;
+    }
+}
@@ -0,0 +1,25 @@
+package profiling;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The deletion of a sold product from the catalog, including the time spent waiting
+ * for the product to be added, if it was not added yet
+ */
+@Name("auction.ProductDeletion")
+@Label("Product Deletion")
+@Description("A sold product removed from the catalog")
+public class ProductDeletionEvent extends AuctionHouseEvent {
+
+    @Label("Catalog Generation")
+    private int generation;
+
+    /**
+     * Sets the generation of the catalog when the deletion was decided
+     * @param generation the generation of the catalog
+     */
+    public void setGeneration(int generation) {
+        this.generation = generation;
+    }
+}
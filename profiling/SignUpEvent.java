@@ -0,0 +1,36 @@
+package profiling;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A request of a client, from its arrival until the client is registered for the auction
+ * of the product or the request is rejected
+ */
+@Name("auction.SignUp")
+@Label("Sign Up")
+@Description("A client requesting a product")
+public class SignUpEvent extends AuctionHouseEvent {
+
+    @Label("Client Id")
+    private int clientId;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * Sets the client who sent the request
+     * @param clientId the id of the client
+     */
+    public void setClientId(int clientId) {
+        this.clientId = clientId;
+    }
+
+    /**
+     * Sets the outcome of the request
+     * @param outcome the name of the outcome, as in RequestOutcome
+     */
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
@@ -0,0 +1,36 @@
+package profiling;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The validation of a request: the search of the product, the check of the price and the
+ * check for a duplicate request
+ */
+@Name("auction.Validation")
+@Label("Request Validation")
+@Description("The product, price and duplicate checks of a request")
+public class ValidationEvent extends AuctionHouseEvent {
+
+    @Label("Client Id")
+    private int clientId;
+
+    @Label("Valid")
+    private boolean valid;
+
+    /**
+     * Sets the client who sent the request
+     * @param clientId the id of the client
+     */
+    public void setClientId(int clientId) {
+        this.clientId = clientId;
+    }
+
+    /**
+     * Sets the result of the validation
+     * @param valid true if the request passed all the checks
+     */
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+}
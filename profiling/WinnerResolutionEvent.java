@@ -0,0 +1,47 @@
+package profiling;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The end of an auction: the search of the winner by the brokers, who apply the commissions
+ * and sell the product, or the decision that the product is not sold
+ */
+@Name("auction.WinnerResolution")
+@Label("Winner Resolution")
+@Description("The brokers finding the winner of an auction")
+public class WinnerResolutionEvent extends AuctionHouseEvent {
+
+    @Label("Participants")
+    private int participants;
+
+    @Label("Price")
+    private double price;
+
+    @Label("Sold")
+    private boolean sold;
+
+    /**
+     * Sets the number of participants of the auction
+     * @param participants the number of participants
+     */
+    public void setParticipants(int participants) {
+        this.participants = participants;
+    }
+
+    /**
+     * Sets the biggest bid of the auction
+     * @param price the biggest bid
+     */
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    /**
+     * Sets the result of the auction
+     * @param sold true if the product was sold
+     */
+    public void setSold(boolean sold) {
+        this.sold = sold;
+    }
+}
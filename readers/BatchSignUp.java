@@ -0,0 +1,45 @@
+package readers;
+import interfaces.RequestSink;
+import organisers.AuctionHouse;
+import organisers.RequestBatch;
+
+/**
+ * Signs up the requests received from a reader in batches of fixed size, the
+ * rejected requests being skipped, as the exceptions of single sign ups were
+ */
+class BatchSignUp implements RequestSink {
+
+    //How many requests are signed up together
+    private static final int BATCH_SIZE = 1024;
+
+    private final AuctionHouse crtHouse;
+    private final RequestBatch batch = new RequestBatch(BATCH_SIZE);
+
+    /**
+     * Creates a sink that signs up the requests in an auction house
+     * @param crtHouse the auction house
+     */
+    BatchSignUp(AuctionHouse crtHouse) {
+        this.crtHouse = crtHouse;
+    }
+
+    @Override
+    public void accept(int clientId, int productId, int maxSum) {
+        batch.add(clientId, productId, maxSum);
+        if(batch.size() == BATCH_SIZE) {
+            signUpBatch();
+        }
+    }
+
+    @Override
+    public void end() {
+        signUpBatch();
+    }
+
+    private void signUpBatch() {
+        if(batch.size() > 0) {
+            crtHouse.requestAll(batch);
+            batch.clear();
+        }
+    }
+}
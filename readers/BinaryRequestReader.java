@@ -0,0 +1,113 @@
+package readers;
+
+import interfaces.RequestSink;
+import organisers.AuctionHouse;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Class for reading the requests from a binary request file. The file starts with a header
+ * holding a magic number, the version of the format and the number of requests, followed
+ * by the requests as fixed-width records of three ints: the id of the client, the id of the
+ * product and the maximum sum. The records are read straight from the mapped file, so no
+ * object is created for a request before it is signed up
+ */
+public class BinaryRequestReader {
+
+    //"AREQ", followed by the version of the format
+    static final int MAGIC = 0x41524551;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 12;
+    static final int RECORD_SIZE = 12;
+
+    //The file is mapped in windows of whole records, so a file bigger than 2 GB can be read too
+    private static final long WINDOW_SIZE = (1L << 26) / RECORD_SIZE * RECORD_SIZE;
+
+    /**
+     * Private constructor for hiding the default one
+     */
+    private BinaryRequestReader() {
+    }
+
+    /**
+     * Gets the path to the request file of a test, placed next to its Excel file
+     * @param testNumber the test
+     * @return the path to the request file
+     */
+    public static Path pathOf(int testNumber) {
+        return Paths.get("tests/test" + testNumber + "/test" + testNumber + ".req");
+    }
+
+    /**
+     * Reads the request file of the default test
+     * @throws IOException if the file can not be read, or it is not a request file
+     */
+    public static void readRequests() throws IOException {
+        readRequests(Main.TEST_NUMBER);
+    }
+
+    /**
+     * Reads the request file of a test, and signs up its requests
+     * @param testNumber the current test
+     * @throws IOException if the file can not be read, or it is not a request file
+     */
+    public static void readRequests(int testNumber) throws IOException {
+        readRequests(pathOf(testNumber));
+    }
+
+    /**
+     * Reads a request file placed anywhere, such as the one of a generated workload, and signs up its requests
+     * @param path the request file
+     * @return the number of requests read, the rejected ones included
+     * @throws IOException if the file can not be read, or it is not a request file
+     */
+    public static long readRequests(Path path) throws IOException {
+        return readRequests(path, new BatchSignUp(AuctionHouse.getInstance()));
+    }
+
+    /**
+     * Reads a request file, and gives its requests to a sink
+     * @param path the request file
+     * @param sink the sink receiving the requests, in the order of the file
+     * @return the number of requests read
+     * @throws IOException if the file can not be read, or it is not a request file
+     */
+    public static long readRequests(Path path, RequestSink sink) throws IOException {
+        long noRequests;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < HEADER_SIZE) {
+                throw new IOException("The file is not a request file");
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if(header.getInt(0) != MAGIC) {
+                throw new IOException("The file is not a request file");
+            }
+            if(header.getInt(4) != VERSION) {
+                throw new IOException("Unknown request file version " + header.getInt(4));
+            }
+            noRequests = Integer.toUnsignedLong(header.getInt(8));
+            if(HEADER_SIZE + noRequests * RECORD_SIZE > size) {
+                throw new IOException("The request file is truncated");
+            }
+
+            long offset = HEADER_SIZE;
+            long end = HEADER_SIZE + noRequests * RECORD_SIZE;
+            while(offset < end) {
+                long windowSize = Math.min(WINDOW_SIZE, end - offset);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, windowSize);
+                for(int position = 0; position < windowSize; position += RECORD_SIZE) {
+                    sink.accept(window.getInt(position), window.getInt(position + 4), window.getInt(position + 8));
+                }
+                offset += windowSize;
+            }
+        }
+        sink.end();
+        return noRequests;
+    }
+}
@@ -5,8 +5,8 @@ import exceptions.JSONDataException;
 import exceptions.UnknownDataException;
 import interfaces.AbstractFactory;
 import interfaces.FactoryProvider;
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
+import multithreading.TaskExecutor;
+import org.json.simple.parser.ContentHandler;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import organisers.Administrator;
@@ -14,18 +14,40 @@ import organisers.Auction;
 import organisers.AuctionHouse;
 import organisers.Broker;
 import products.Product;
+import products.ProductFactory;
 
+import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 
 /**
  * Class for parsing and reading a JSON file
  */
 public class JSONReader {
 
+    //How many add tasks are submitted before waiting for them, so that their number stays bounded
+    private static final int MAX_PENDING_TASKS = 4096;
+
+    //How many objects of a section are parsed and decoded together by one task, in the parallel mode
+    private static final int CHUNK_SIZE = 512;
+
+    //The parallel mode is chosen with the "auction.parallelLoad" system property
+    private static final boolean PARALLEL = Boolean.getBoolean("auction.parallelLoad");
+
     /**
      * Utility class does not need to be instantiated
      */
@@ -44,7 +66,8 @@ public class JSONReader {
     }
 
     /**
-     * Reads the data from JSON file, with the specified testNumber
+     * Reads the data from JSON file, with the specified testNumber, in the mode given by
+     * the "auction.parallelLoad" system property
      * @param testNumber the test to be executed
      * @throws IOException if the JSON file does not exist
      * @throws ParseException if the JSON file cannot be parsed
@@ -52,121 +75,390 @@ public class JSONReader {
      * @throws UnknownDataException if the products or clients are of unknown subtypes
      */
     public static void readJSON(int testNumber) throws IOException, ParseException, JSONDataException, UnknownDataException {
+        readJSON(testNumber, PARALLEL);
+    }
+
+    /**
+     * Reads the data from JSON file, with the specified testNumber. In the sequential mode, the
+     * file is read token by token, the whole document is never kept in memory, and every product,
+     * client, broker and auction is created as soon as its object ends. In the parallel mode, the
+     * text of the file is read at once and split in chunks of objects of the same section, which
+     * are parsed and decoded on a fork/join pool. The ids are given by the position of the objects
+     * in the file in both modes, and the clients, brokers and auctions are added in the same order
+     * @param testNumber the test to be executed
+     * @param parallel true for parsing and decoding the objects on a fork/join pool
+     * @throws IOException if the JSON file does not exist
+     * @throws ParseException if the JSON file cannot be parsed
+     * @throws JSONDataException if the data is invalid
+     * @throws UnknownDataException if the products or clients are of unknown subtypes
+     */
+    public static void readJSON(int testNumber, boolean parallel)
+            throws IOException, ParseException, JSONDataException, UnknownDataException {
+        readJSON(Paths.get("tests/test" + testNumber + "/test" + testNumber + "_info.json"), parallel);
+    }
+
+    /**
+     * Reads the data from a JSON file outside the tests folder, such as a generated workload
+     * @param path the JSON file
+     * @param parallel true for parsing and decoding the objects on a fork/join pool
+     * @throws IOException if the JSON file does not exist
+     * @throws ParseException if the JSON file cannot be parsed
+     * @throws JSONDataException if the data is invalid
+     * @throws UnknownDataException if the products or clients are of unknown subtypes
+     */
+    public static void readJSON(Path path, boolean parallel)
+            throws IOException, ParseException, JSONDataException, UnknownDataException {
+        //The house is created here, before the add tasks use it from other threads
         AuctionHouse crtHouse = AuctionHouse.getInstance();
-        String jsonName = "tests/test" + testNumber + "/test" + testNumber + "_info.json";
-        JSONParser parser = new JSONParser();
-
-        try (Reader reader = new FileReader(jsonName)) {
-            //Initialise the main JSON object and all the auxiliary lists of products, clients, brokers and auctions
-            JSONObject jsonObject = (JSONObject) parser.parse(reader);
-            JSONObject admin = (JSONObject) jsonObject.get("administrator");
-            JSONArray productsArr = (JSONArray) jsonObject.get("products");
-            JSONArray clientsArr = (JSONArray) jsonObject.get("clients");
-            JSONArray brokersArr = (JSONArray) jsonObject.get("brokers");
-            JSONArray auctionsArr = (JSONArray) jsonObject.get("auctions");
-
-            //Get an iterator for each list, used for traversal
-            Iterator<JSONObject> productsIterator = productsArr.iterator();
-            Iterator<JSONObject> clientsIterator = clientsArr.iterator();
-            Iterator<JSONObject> brokersIterator = brokersArr.iterator();
-            Iterator<JSONObject> auctionsIterator = auctionsArr.iterator();
-
-            //Obtain the factory necessary for creating product objects
-            AbstractFactory<Product> productFactory = FactoryProvider.getFactory("product");
-
-            int productIndex = 0;
-            while (productsIterator.hasNext()) {
-                //Iterate through products and extract all their attributes
-                JSONObject crtProduct = productsIterator.next();
-                String productType = (String) crtProduct.get("product_type");
-                String name = (String) crtProduct.get("name");
-                String minPrice = String.valueOf(((Number) crtProduct.get("min_price")).doubleValue());
-                String year = String.valueOf(((Number) crtProduct.get("year")).intValue());
-
-                /*additionalInfo is read afterwards and it differs, based on the type of product(for example,
-                a Painting may have a painter and a color type */
-                String additionalInfo1;
-                String additionalInfo2;
-                final String material = "material";
-                switch (productType) {
-                    //Read the additional information from JSON, based on the product's type
-                    case "furniture":
-                        additionalInfo1 = (String) crtProduct.get("type");
-                        additionalInfo2 = (String) crtProduct.get(material);
-                        break;
-                    case "jewelry":
-                        additionalInfo1 = (String) crtProduct.get(material);
-                        additionalInfo2 = (String) crtProduct.get("precious_stone");
-                        break;
-                    case "painting":
-                        additionalInfo1 = (String) crtProduct.get("painter_name");
-                        additionalInfo2 = (String) crtProduct.get("color");
-                        break;
-                    case "clothing":
-                        additionalInfo1 = (String) crtProduct.get("designer");
-                        additionalInfo2 = (String) crtProduct.get(material);
-                        break;
-                    case "antique":
-                        additionalInfo1 = String.valueOf(crtProduct.get("age"));
-                        additionalInfo2 = (String) crtProduct.get("origin");
-                        break;
-                    default:
-                        //If the product type is not found, then the JSON file cannot be parsed how it was intended
-                        throw new JSONDataException();
+
+        if(parallel) {
+            //Only the boundaries of the chunks are found here, the tasks of the pool parse them
+            String text = new String(Files.readAllBytes(path), Charset.defaultCharset());
+            HouseHandler handler = new HouseHandler(crtHouse, ForkJoinPool.commonPool());
+            for(SectionSplitter.Chunk chunk : SectionSplitter.split(text, CHUNK_SIZE)) {
+                handler.submitChunk(text, chunk);
+            }
+            handler.finish();
+            return;
+        }
+
+        try (Reader reader = new BufferedReader(new FileReader(path.toFile()), 1 << 16)) {
+            HouseHandler handler = new HouseHandler(crtHouse, null);
+            new JSONParser().parse(reader, handler);
+
+            //The parser stops at the first object that cannot be created, and its exception is thrown here
+            handler.rethrow();
+            handler.finish();
+        }
+    }
+
+    /**
+     * Receives the tokens of the JSON file in the sequential mode, or its chunks in the parallel
+     * mode. The attributes of the current object are kept until the object ends, because their
+     * order in the file is not fixed
+     */
+    private static class HouseHandler implements ContentHandler {
+
+        //The root object, the arrays of the sections, and the objects of the arrays
+        private static final int ROOT = 1;
+        private static final int SECTION = 2;
+        private static final int ENTRY = 3;
+
+        private final AuctionHouse crtHouse;
+        private final AbstractFactory<Product> productFactory;
+        private final AbstractFactory<Client> clientFactory;
+
+        //The pool parsing and decoding the chunks, or null in the sequential mode
+        private final ForkJoinPool pool;
+
+        private Map<String, Object> fields = new HashMap<>();
+        private final List<Future<?>> addTasks = new ArrayList<>();
+        private Map<String, Object> admin;
+        private String section;
+        private String key;
+        private int depth;
+        private int productIndex;
+        private int auctionIndex;
+        private Exception error;
+
+        //The decode tasks of the clients, brokers and auctions, joined in order at the end
+        private final List<ForkJoinTask<List<Object>>> orderedTasks = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        HouseHandler(AuctionHouse crtHouse, ForkJoinPool pool) throws UnknownDataException {
+            this.crtHouse = crtHouse;
+            this.pool = pool;
+
+            //Obtain the factories necessary for creating product and client objects
+            productFactory = FactoryProvider.getFactory("product");
+            clientFactory = FactoryProvider.getFactory("client");
+        }
+
+        @Override
+        public void startJSON() {
+            depth = 0;
+        }
+
+        @Override
+        public void endJSON() {
+        }
+
+        @Override
+        public boolean startObject() {
+            depth++;
+            fields.clear();
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            try {
+                if(depth == ENTRY) {
+                    createEntry();
+                } else if(depth == SECTION && "administrator".equals(section)) {
+                    admin = new HashMap<>(fields);
                 }
+            } catch(JSONDataException | UnknownDataException | RuntimeException e) {
+                error = e;
+                return false;
+            }
+            depth--;
+            return true;
+        }
 
-                /*Take all the parameters and build a list with them. Then the list is passed in the obtained
-                Product factory for instantiating the current product object */
-                String[] params = new String[]{productType, name, minPrice, year,
-                        additionalInfo1, additionalInfo2};
-
-                //Create and add the new product
-                Product p = productFactory.create(Arrays.asList(params));
-                p.setId(productIndex);
-                productIndex++;
-                Thread t = new Thread(Administrator.getInstance().addAuctionProduct(p));
-                t.start();
+        @Override
+        public boolean startObjectEntry(String key) {
+            if(depth == ROOT) {
+                section = key;
             }
+            this.key = key;
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            depth++;
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            depth--;
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            //Only the attributes of the products, clients, brokers, auctions and administrator are kept
+            if(depth == ENTRY || (depth == SECTION && "administrator".equals(section))) {
+                fields.put(key, value);
+            }
+            return true;
+        }
+
+        //Creates the product, client, broker or auction whose object just ended
+        private void createEntry() throws JSONDataException, UnknownDataException {
+            switch(section) {
+                case "products":
+                    Product p = createProduct(fields, productIndex);
+                    productIndex++;
+                    addTasks.add(TaskExecutor.getInstance().submit(Administrator.getInstance().addAuctionProduct(p)));
 
-            while (clientsIterator.hasNext()) {
-                //Iterate through clients, same as with products
-                JSONObject crtClient = clientsIterator.next();
-                String clientType = (String) crtClient.get("client_type");
-                String name = (String) crtClient.get("name");
-                String address = (String) crtClient.get("address");
-                String additionalInfo1;
-                String additionalInfo2 = "none";
-                switch (clientType) {
-                    case "legal":
-                        additionalInfo1 = (String) crtClient.get("company");
-                        additionalInfo2 = String.valueOf(((Number) crtClient.get("capital")).doubleValue());
-                        break;
-                    case "natural":
-                        additionalInfo1 = (String) crtClient.get("birth_date");
-                        break;
-                    default:
-                        throw new JSONDataException();
+                    //The products added so far are awaited, so that the pending tasks do not grow with the file
+                    if(addTasks.size() >= MAX_PENDING_TASKS) {
+                        TaskExecutor.awaitAll(addTasks);
+                        addTasks.clear();
+                    }
+                    break;
+                case "clients":
+                    Administrator.getInstance().addAuctionClient(createClient(fields));
+                    break;
+                case "brokers":
+                    crtHouse.add(createBroker(fields));
+                    break;
+                case "auctions":
+                    Administrator.getInstance().addAuction(createAuction(fields, auctionIndex));
+                    auctionIndex++;
+                    break;
+                default:
+                    //The objects of other sections are not part of the configuration
+                    break;
+            }
+        }
+
+        /**
+         * Gives a chunk of the file to a task that parses and decodes it, the id of each object being
+         * its position in the section. The administrator is parsed at once, being a single object
+         * @param text the text of the file
+         * @param chunk the chunk, holding objects of a section or the whole value of a section
+         * @throws ParseException if the object of the administrator cannot be parsed
+         */
+        @SuppressWarnings("unchecked")
+        void submitChunk(String text, SectionSplitter.Chunk chunk) throws ParseException {
+            String crtSection = chunk.getSection();
+            if(!chunk.isElements()) {
+                Object value = chunk.parse(text);
+                if("administrator".equals(crtSection) && value instanceof Map) {
+                    admin = (Map<String, Object>) value;
                 }
+                return;
+            }
+
+            int crtStart = chunk.getFirstObject();
+            switch(crtSection) {
+                case "products":
+                    //The products can be added in any order, so their tasks add them directly
+                    addTasks.add(pool.submit(() -> {
+                        int id = crtStart;
+                        for(Map<String, Object> entry : parseObjects(text, chunk)) {
+                            crtHouse.add(createProduct(entry, id++));
+                        }
+                        return null;
+                    }));
+                    break;
+                case "clients":
+                case "brokers":
+                case "auctions":
+                    orderedTasks.add(pool.submit(() -> {
+                        List<Map<String, Object>> entries = parseObjects(text, chunk);
+                        List<Object> decoded = new ArrayList<>(entries.size());
+                        for(int i = 0; i < entries.size(); i++) {
+                            Map<String, Object> entry = entries.get(i);
+                            switch(crtSection) {
+                                case "clients":
+                                    decoded.add(createClient(entry));
+                                    break;
+                                case "brokers":
+                                    decoded.add(createBroker(entry));
+                                    break;
+                                default:
+                                    decoded.add(createAuction(entry, crtStart + i));
+                                    break;
+                            }
+                        }
+                        return decoded;
+                    }));
+                    break;
+                default:
+                    //The objects of other sections are not part of the configuration
+                    break;
+            }
+        }
+
+        //Parses the elements of a chunk, keeping only the objects, as the tokens of the other values are ignored
+        @SuppressWarnings("unchecked")
+        private static List<Map<String, Object>> parseObjects(String text, SectionSplitter.Chunk chunk)
+                throws ParseException {
+            List<Map<String, Object>> objects = new ArrayList<>();
+            for(Object element : (List<Object>) chunk.parse(text)) {
+                if(element instanceof Map) {
+                    objects.add((Map<String, Object>) element);
+                }
+            }
+            return objects;
+        }
+
+        //Waits for the products parsed and decoded by the pool
+        private void awaitProducts() throws ParseException, JSONDataException, UnknownDataException {
+            for(Future<?> task : addTasks) {
+                join(task);
+            }
+            addTasks.clear();
+        }
+
+        private Product createProduct(Map<String, Object> fields, int id) throws JSONDataException, UnknownDataException {
+            String productType = (String) fields.get("product_type");
+            String name = (String) fields.get("name");
+            double minPrice = ((Number) fields.get("min_price")).doubleValue();
+            int year = ((Number) fields.get("year")).intValue();
 
-                //Obtain the client factory
-                AbstractFactory<Client> clientFactory = FactoryProvider.getFactory("client");
+            /*additionalInfo is read afterwards and it differs, based on the type of product(for example,
+            a Painting may have a painter and a color type */
+            String additionalInfo1;
+            String additionalInfo2;
+            final String material = "material";
+            switch (productType) {
+                //Read the additional information from JSON, based on the product's type
+                case "furniture":
+                    additionalInfo1 = (String) fields.get("type");
+                    additionalInfo2 = (String) fields.get(material);
+                    break;
+                case "jewelry":
+                    additionalInfo1 = (String) fields.get(material);
+                    additionalInfo2 = (String) fields.get("precious_stone");
+                    break;
+                case "painting":
+                    additionalInfo1 = (String) fields.get("painter_name");
+                    additionalInfo2 = (String) fields.get("color");
+                    break;
+                case "clothing":
+                    additionalInfo1 = (String) fields.get("designer");
+                    additionalInfo2 = (String) fields.get(material);
+                    break;
+                case "antique":
+                    additionalInfo1 = String.valueOf(fields.get("age"));
+                    additionalInfo2 = (String) fields.get("origin");
+                    break;
+                default:
+                    //If the product type is not found, then the JSON file cannot be parsed how it was intended
+                    throw new JSONDataException();
+            }
 
-                //Build a list of parameters and use the list for a client creation
-                String[] params = new String[]{clientType, name, address,
-                        additionalInfo1, additionalInfo2};
+            //Create the new product, without converting the numbers to strings
+            Product p = ((ProductFactory) productFactory).create(productType, name, minPrice, year,
+                    additionalInfo1, additionalInfo2);
+            p.setId(id);
+            return p;
+        }
 
-                Client c = clientFactory.create(Arrays.asList(params));
-                Administrator.getInstance().addAuctionClient(c);
+        private Client createClient(Map<String, Object> fields) throws JSONDataException, UnknownDataException {
+            String clientType = (String) fields.get("client_type");
+            String name = (String) fields.get("name");
+            String address = (String) fields.get("address");
+            String additionalInfo1;
+            String additionalInfo2 = "none";
+            switch (clientType) {
+                case "legal":
+                    additionalInfo1 = (String) fields.get("company");
+                    additionalInfo2 = String.valueOf(((Number) fields.get("capital")).doubleValue());
+                    break;
+                case "natural":
+                    additionalInfo1 = (String) fields.get("birth_date");
+                    break;
+                default:
+                    throw new JSONDataException();
             }
 
-            //Read the information about brokers
-            while (brokersIterator.hasNext()) {
-                JSONObject crtEmployee = brokersIterator.next();
-                String name = (String) crtEmployee.get("name");
-                int yearsExp = ((Number) crtEmployee.get("years_of_experience")).intValue();
-                double rating = ((Number) crtEmployee.get("rating")).intValue();
+            //Build a list of parameters and use the list for a client creation
+            String[] params = new String[]{clientType, name, address,
+                    additionalInfo1, additionalInfo2};
+
+            return clientFactory.create(Arrays.asList(params));
+        }
+
+        private Broker createBroker(Map<String, Object> fields) {
+            String name = (String) fields.get("name");
+            int yearsExp = ((Number) fields.get("years_of_experience")).intValue();
+            double rating = ((Number) fields.get("rating")).intValue();
+
+            return new Broker(name, yearsExp, rating);
+        }
+
+        private Auction createAuction(Map<String, Object> fields, int id) {
+            int productId = ((Number) fields.get("product_id")).intValue();
+            int noMaxSteps = ((Number) fields.get("no_max_steps")).intValue();
+            int noParticipants = ((Number) fields.get("no_participants")).intValue();
 
-                crtHouse.add(new Broker(name, yearsExp, rating));
+            //Read the auctions from JSON, rather than generating them afterwards
+            Auction createdAuction = new Auction(productId, noMaxSteps, noParticipants);
+            createdAuction.setId(id);
+            return createdAuction;
+        }
+
+        /**
+         * Adds the objects decoded in parallel, in the order of the file, then the administrator
+         * after the brokers, wherever its object is placed in the file, and waits for the remaining
+         * products to be added
+         * @throws ParseException if a chunk parsed in parallel is not valid JSON
+         * @throws JSONDataException if an object decoded in parallel is invalid
+         * @throws UnknownDataException if an object decoded in parallel is of an unknown subtype
+         */
+        void finish() throws ParseException, JSONDataException, UnknownDataException {
+            for(ForkJoinTask<List<Object>> task : orderedTasks) {
+                for(Object decoded : join(task)) {
+                    if(decoded instanceof Client) {
+                        Administrator.getInstance().addAuctionClient((Client) decoded);
+                    } else if(decoded instanceof Broker) {
+                        crtHouse.add((Broker) decoded);
+                    } else if(decoded instanceof Auction) {
+                        Administrator.getInstance().addAuction((Auction) decoded);
+                    }
+                }
             }
 
             //Read the unique instance of Administrator
@@ -181,19 +473,41 @@ public class JSONReader {
             adm.setRating(rating);
             Administrator.getInstance().addAuctionEmployee(adm);
 
-            //Read the auctions from JSON, rather than generating them afterwards
-            int auctionIndex = 0;
-            while (auctionsIterator.hasNext()) {
-                JSONObject crtAuction = auctionsIterator.next();
-                int productId = ((Number) crtAuction.get("product_id")).intValue();
-                int noMaxSteps = ((Number) crtAuction.get("no_max_steps")).intValue();
-                int noParticipants = ((Number) crtAuction.get("no_participants")).intValue();
-
-                Auction createdAuction = new Auction(productId, noMaxSteps, noParticipants);
-                createdAuction.setId(auctionIndex);
-                auctionIndex++;
-                Administrator.getInstance().addAuction(createdAuction);
+            if(pool != null) {
+                awaitProducts();
+            } else {
+                TaskExecutor.awaitAll(addTasks);
+            }
+        }
+
+        //Waits for a decode task, throwing the exception of the invalid chunk or object it found
+        private static <T> T join(Future<T> task) throws ParseException, JSONDataException, UnknownDataException {
+            try {
+                return task.get();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch(ExecutionException e) {
+                if(e.getCause() instanceof ParseException) {
+                    throw (ParseException) e.getCause();
+                } else if(e.getCause() instanceof JSONDataException) {
+                    throw (JSONDataException) e.getCause();
+                } else if(e.getCause() instanceof UnknownDataException) {
+                    throw (UnknownDataException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        //Throws the exception that stopped the parser, if any
+        void rethrow() throws JSONDataException, UnknownDataException {
+            if(error instanceof JSONDataException) {
+                throw (JSONDataException) error;
+            } else if(error instanceof UnknownDataException) {
+                throw (UnknownDataException) error;
+            } else if(error != null) {
+                throw (RuntimeException) error;
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -2,7 +2,16 @@ package readers;
 import java.io.IOException;
 import exceptions.JSONDataException;
 import exceptions.UnknownDataException;
+import journal.AuctionJournal;
+import journal.JournalReplay;
+import metrics.AuctionMetrics;
+import multithreading.TaskExecutor;
 import org.json.simple.parser.ParseException;
+import organisers.AuctionHouse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * The main class of the program, that calls the two additional
@@ -13,13 +22,54 @@ public class Main {
     //A constant test number
     public static final int TEST_NUMBER = 10;
 
-    public static void main(String[] args) throws IOException, ParseException, UnknownDataException, JSONDataException {
+    public static void main(String[] args)
+            throws IOException, ParseException, UnknownDataException, JSONDataException, InterruptedException {
+
+        //The auctions are run by the engine chosen with -Dauction.engine=SEQUENTIAL or POOLED
+
+        //The metrics are published through JMX while the program runs
+        AuctionMetrics.getInstance().registerMBeans();
 
         //Read the initial Auction House configuration from JSON
         JSONReader.readJSON();
 
-        //Read the client's requests from Excel
-        XLSXReader.readXLSX();
+        //If a journal file is given, the outcomes of the previous runs are replayed from it,
+        //then the outcome of every product sold by this run is appended after them
+        String journalPath = System.getProperty("auction.journal");
+        AuctionJournal journal = null;
+        if(journalPath != null) {
+            Path path = Paths.get(journalPath);
+            if(Files.exists(path)) {
+                JournalReplay.replay(path, AuctionHouse.getInstance());
+            }
+            journal = AuctionJournal.open(path);
+        }
+        AuctionHouse.getInstance().setJournal(journal);
+
+        //Read the client's requests from Excel, or from the binary request file converted from it
+        if("binary".equals(System.getProperty("auction.requests"))) {
+            if(!Files.exists(BinaryRequestReader.pathOf(TEST_NUMBER))) {
+                RequestConverter.convert(TEST_NUMBER);
+            }
+            BinaryRequestReader.readRequests();
+        } else {
+            XLSXReader.readXLSX();
+        }
+
+        //Wait for the started auctions and for the remaining tasks
+        AuctionHouse.getInstance().awaitAuctions();
+        AuctionHouse.getInstance().getEngine().shutdown();
+        AuctionHouse.getInstance().getEvents().shutdown();
+        TaskExecutor.getInstance().shutdown();
+        if(journal != null) {
+            journal.close();
+        }
+
+        //If a metrics file is given, the final values of the metrics are written to it
+        String metricsPath = System.getProperty("auction.metrics");
+        if(metricsPath != null) {
+            Files.write(Paths.get(metricsPath), AuctionMetrics.getInstance().dump().getBytes(StandardCharsets.UTF_8));
+        }
 
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package readers;
+
+import interfaces.RequestSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Converts the Excel files of the tests to binary request files, read afterwards
+ * by the BinaryRequestReader without loading Apache POI
+ */
+public class RequestConverter {
+
+    /**
+     * Private constructor for hiding the default one
+     */
+    private RequestConverter() {
+    }
+
+    /**
+     * Converts the Excel files of the given tests, or of all the tests if none is given
+     * @param args the numbers of the tests
+     * @throws IOException if a request file can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0) {
+            for(int testNumber = 1; testNumber <= 10; testNumber++) {
+                convert(testNumber);
+            }
+        }
+        for(String arg : args) {
+            convert(Integer.parseInt(arg));
+        }
+    }
+
+    /**
+     * Converts the Excel file of a test to a request file, placed next to it
+     * @param testNumber the test
+     * @return the path to the request file
+     * @throws IOException if the request file can not be written
+     */
+    public static Path convert(int testNumber) throws IOException {
+        Path path = BinaryRequestReader.pathOf(testNumber);
+        try(RequestWriter writer = new RequestWriter(path)) {
+            XLSXReader.readXLSX(testNumber, writer);
+        } catch(UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return path;
+    }
+
+    /**
+     * Writes the requests it receives to a request file, through a buffer of fixed size.
+     * The number of requests is written in the header when the file is closed. Also used for
+     * writing the request files of generated workloads
+     */
+    public static class RequestWriter implements RequestSink, Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BinaryRequestReader.RECORD_SIZE * 4096);
+        private int noRequests;
+
+        /**
+         * Creates a request file, replacing the existing one
+         * @param path the request file
+         * @throws IOException if the file can not be created
+         */
+        public RequestWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(BinaryRequestReader.MAGIC);
+            buffer.putInt(BinaryRequestReader.VERSION);
+            buffer.putInt(0);
+        }
+
+        @Override
+        public void accept(int clientId, int productId, int maxSum) {
+            if(buffer.remaining() < BinaryRequestReader.RECORD_SIZE) {
+                drain();
+            }
+            buffer.putInt(clientId);
+            buffer.putInt(productId);
+            buffer.putInt(maxSum);
+            noRequests++;
+        }
+
+        private void drain() {
+            try {
+                buffer.flip();
+                while(buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+
+                //The header is completed once the number of requests is known
+                ByteBuffer count = ByteBuffer.allocate(4).putInt(0, noRequests);
+                channel.write(count, 8);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
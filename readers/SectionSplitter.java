@@ -0,0 +1,268 @@
+package readers;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the text of a configuration file into chunks that can be parsed independently, so that
+ * the parsing itself, and not only the decoding of the parsed objects, is spread over several
+ * threads. Only the boundaries of the values are found here, by skipping over the strings and
+ * counting the brackets, which is much cheaper than tokenizing the file. Every value of the
+ * root object is a chunk, except the arrays, which are split in chunks of consecutive elements.
+ * The text of the chunks is checked when they are parsed, the splitter only checks the root object
+ */
+final class SectionSplitter {
+
+    /**
+     * A part of the text holding one value of the root object, or some consecutive elements of one
+     * of its arrays, separated by commas
+     */
+    static final class Chunk {
+        private final String section;
+        private final boolean elements;
+        private final int firstObject;
+        private final int begin;
+        private final int end;
+
+        Chunk(String section, boolean elements, int firstObject, int begin, int end) {
+            this.section = section;
+            this.elements = elements;
+            this.firstObject = firstObject;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        /**
+         * Gets the key of the value in the root object
+         * @return the name of the section
+         */
+        String getSection() {
+            return section;
+        }
+
+        /**
+         * Tells if the chunk holds elements of an array, or a whole value
+         * @return true for the elements of an array
+         */
+        boolean isElements() {
+            return elements;
+        }
+
+        /**
+         * Gets the position of the first object of the chunk among the objects of its section,
+         * counting the objects of the earlier chunks of all the arrays with the same key
+         * @return the position of the first object
+         */
+        int getFirstObject() {
+            return firstObject;
+        }
+
+        /**
+         * Parses the text of the chunk
+         * @param text the text of the whole file
+         * @return the elements of the chunk, or the value itself for a chunk of a whole value
+         * @throws ParseException if the text of the chunk is not valid JSON
+         */
+        Object parse(String text) throws ParseException {
+            String value = text.substring(begin, end);
+            return new JSONParser().parse(elements ? "[" + value + "]" : value);
+        }
+    }
+
+    private final String text;
+    private final int chunkSize;
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    //The number of objects already found in the arrays of each section
+    private final Map<String, Integer> objectCounts = new HashMap<>();
+    private int pos;
+
+    private SectionSplitter(String text, int chunkSize) {
+        this.text = text;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Splits the text of a JSON file whose root is an object
+     * @param text the text of the file
+     * @param chunkSize the number of elements of an array kept in one chunk
+     * @return the chunks, in the order of the file
+     * @throws ParseException if the root is not an object, or the text ends before it
+     */
+    static List<Chunk> split(String text, int chunkSize) throws ParseException {
+        SectionSplitter splitter = new SectionSplitter(text, Math.max(1, chunkSize));
+        splitter.splitRoot();
+        return splitter.chunks;
+    }
+
+    private void splitRoot() throws ParseException {
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if(peek() == '}') {
+            pos++;
+        } else {
+            while(true) {
+                //Read the key, then split its value
+                int keyBegin = pos;
+                skipString();
+                String section = (String) new JSONParser().parse(text.substring(keyBegin, pos));
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                if(peek() == '[') {
+                    splitArray(section);
+                } else {
+                    int begin = pos;
+                    skipValue();
+                    chunks.add(new Chunk(section, false, 0, begin, pos));
+                }
+
+                skipWhitespace();
+                char c = next();
+                if(c == '}') {
+                    break;
+                }
+                if(c != ',') {
+                    throw unexpected(pos - 1, c);
+                }
+                skipWhitespace();
+            }
+        }
+
+        //Nothing but whitespace may follow the root object
+        skipWhitespace();
+        if(pos < text.length()) {
+            throw unexpected(pos, text.charAt(pos));
+        }
+    }
+
+    //Splits the elements of an array in chunks, the position of its objects following those of the same section
+    private void splitArray(String section) throws ParseException {
+        int objects = objectCounts.getOrDefault(section, 0);
+        pos++;
+        skipWhitespace();
+        if(peek() == ']') {
+            pos++;
+            return;
+        }
+
+        int chunkBegin = pos;
+        int chunkFirstObject = objects;
+        int chunkElements = 0;
+        while(true) {
+            if(peek() == '{') {
+                objects++;
+            }
+            skipValue();
+            chunkElements++;
+            int elementEnd = pos;
+
+            skipWhitespace();
+            char c = next();
+            if(c != ',' && c != ']') {
+                throw unexpected(pos - 1, c);
+            }
+            if(chunkElements == chunkSize || c == ']') {
+                chunks.add(new Chunk(section, true, chunkFirstObject, chunkBegin, elementEnd));
+                chunkFirstObject = objects;
+                chunkElements = 0;
+            }
+            if(c == ']') {
+                break;
+            }
+            skipWhitespace();
+            if(chunkElements == 0) {
+                chunkBegin = pos;
+            }
+        }
+        objectCounts.put(section, objects);
+    }
+
+    //Moves after a value, whose text is checked only when its chunk is parsed
+    private void skipValue() throws ParseException {
+        char c = peek();
+        if(c == '"') {
+            skipString();
+        } else if(c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = peek();
+                if(c == '"') {
+                    skipString();
+                    continue;
+                }
+                if(c == '{' || c == '[') {
+                    depth++;
+                } else if(c == '}' || c == ']') {
+                    depth--;
+                }
+                pos++;
+            } while(depth > 0);
+        } else {
+            //A number, true, false or null ends at the first separator
+            int begin = pos;
+            while(pos < text.length() && ",]} \t\r\n".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            if(pos == begin) {
+                throw unexpected(pos, c);
+            }
+        }
+    }
+
+    //Moves after a string, jumping from quote to quote
+    private void skipString() throws ParseException {
+        expect('"');
+        while(true) {
+            int quote = text.indexOf('"', pos);
+            if(quote < 0) {
+                pos = text.length();
+                throw new ParseException(pos, ParseException.ERROR_UNEXPECTED_TOKEN, null);
+            }
+            pos = quote + 1;
+
+            //A quote after an odd number of backslashes is part of the string
+            int backslashes = 0;
+            while(text.charAt(quote - 1 - backslashes) == '\\') {
+                backslashes++;
+            }
+            if(backslashes % 2 == 0) {
+                return;
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while(pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private void expect(char expected) throws ParseException {
+        char c = next();
+        if(c != expected) {
+            throw unexpected(pos - 1, c);
+        }
+    }
+
+    private char peek() throws ParseException {
+        if(pos >= text.length()) {
+            throw new ParseException(pos, ParseException.ERROR_UNEXPECTED_TOKEN, null);
+        }
+        return text.charAt(pos);
+    }
+
+    private char next() throws ParseException {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private static ParseException unexpected(int position, char c) {
+        return new ParseException(position, ParseException.ERROR_UNEXPECTED_CHAR, c);
+    }
+}
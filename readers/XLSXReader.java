@@ -1,19 +1,36 @@
 package readers;
 
-import exceptions.DuplicateRequestException;
-import exceptions.InvalidProductRequest;
-import org.apache.poi.ss.usermodel.*;
+import interfaces.RequestSink;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 import organisers.AuctionHouse;
 
-import java.io.File;
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
- * Class for reading the request from an XLSX Excel file
+ * Class for reading the request from an XLSX Excel file. The sheet is not loaded in
+ * memory, its XML is parsed row by row and the requests are signed up in batches of
+ * fixed size, so the memory used does not depend on the number of rows
  */
 public class XLSXReader {
 
+    //Marks a shared string that is not a number, which can not be used in a request
+    private static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+
     /**
      * Private constructor for hiding the default one
      */
@@ -32,41 +49,245 @@ public class XLSXReader {
      * @param testNumber the current test
      */
     public static void readXLSX(int testNumber) {
-        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        readXLSX(testNumber, new BatchSignUp(AuctionHouse.getInstance()));
+    }
 
+    /**
+     * Reads the requests of an Excel file for a specified test, and gives them to a sink
+     * instead of signing them up
+     * @param testNumber the current test
+     * @param sink the sink receiving the requests, in the order of the rows
+     */
+    public static void readXLSX(int testNumber, RequestSink sink) {
         //The path to the XLSX file
-        String xlsxName = "tests/test" + testNumber + "/test" + testNumber + ".xlsx";
-        try (Workbook workbook = WorkbookFactory.create(new File(xlsxName))) {
-            //Get the unique sheet
-            Sheet sheet = workbook.getSheetAt(0);
-            DataFormatter dataFormatter = new DataFormatter();
-
-            //Obtain an iterator for the rows
-            Iterator<Row> rowIterator = sheet.rowIterator();
-            rowIterator.next();
-
-            rowIterator.forEachRemaining( crtRow -> {
-                Cell clientCell = crtRow.getCell(0);
-                Cell productCell = crtRow.getCell(1);
-                Cell sumCell = crtRow.getCell(2);
-
-                //And parse the information they contain(two integers and a String with a '$' character at the end)
-                int clientId = Integer.parseInt(dataFormatter.formatCellValue(clientCell));
-                int productId = Integer.parseInt(dataFormatter.formatCellValue(productCell));
-                String sumWithSign = dataFormatter.formatCellValue(sumCell);
-
-                //Extract the '$' character
-                int maxSum = Integer.parseInt(sumWithSign.substring(0, sumWithSign.length() - 1));
-
-                //Try to sign up the client for his required product
+        readXLSX(Paths.get("tests/test" + testNumber + "/test" + testNumber + ".xlsx"), sink);
+    }
+
+    /**
+     * Reads the requests of an Excel file and gives them to a sink. The sink is ended even if
+     * a row is malformed, so the requests read before it are not lost
+     * @param path the Excel file
+     * @param sink the sink receiving the requests, in the order of the rows
+     * @throws NumberFormatException if a row does not hold a valid request
+     */
+    public static void readXLSX(Path path, RequestSink sink) {
+        //The file is only read, so it is never written back when it is closed
+        try (OPCPackage pkg = OPCPackage.open(path.toFile(), PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            int[] sharedNumbers = readSharedNumbers(xssfReader);
+
+            //Get the first sheet
+            Iterator<InputStream> sheets = xssfReader.getSheetsData();
+            try (InputStream sheet = sheets.next()) {
+                parse(sheet, new RequestHandler(sink, sharedNumbers));
+            }
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+            e.printStackTrace();
+        } finally {
+            sink.end();
+        }
+    }
+
+    //Decodes every shared string once, the sums being stored as strings like "123$"
+    private static int[] readSharedNumbers(XSSFReader xssfReader)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        SharedNumbersHandler handler = new SharedNumbersHandler();
+        try (InputStream sharedStrings = xssfReader.getSharedStringsData()) {
+            if(sharedStrings != null) {
+                parse(sharedStrings, handler);
+            }
+        }
+        return handler.getNumbers();
+    }
+
+    private static void parse(InputStream xml, DefaultHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        XMLReader xmlReader = XMLHelper.newXMLReader();
+        xmlReader.setContentHandler(handler);
+        xmlReader.parse(new InputSource(xml));
+    }
+
+    /**
+     * Decodes the value of a cell without building a string. The trailing '$' of a sum
+     * is skipped, so "123$" and 123 give the same number
+     * @param value the characters of the cell
+     * @return the decoded number
+     * @throws NumberFormatException if the value is not a whole number
+     */
+    static int decode(CharSequence value) {
+        int length = value.length();
+        if(length > 0 && value.charAt(length - 1) == '$') {
+            length--;
+        }
+        //A numeric cell may be stored with a decimal part, as in "12.0"
+        for(int i = 0; i < length; i++) {
+            if(value.charAt(i) == '.') {
+                for(int j = i + 1; j < length; j++) {
+                    if(value.charAt(j) != '0') {
+                        throw new NumberFormatException(value.toString());
+                    }
+                }
+                length = i;
+                break;
+            }
+        }
+        return Integer.parseInt(value, 0, length, 10);
+    }
+
+    /**
+     * Reads the shared strings of the workbook, keeping only their decoded numbers
+     */
+    private static class SharedNumbersHandler extends DefaultHandler {
+        private final StringBuilder text = new StringBuilder();
+        private int[] numbers = new int[64];
+        private int size;
+        private boolean inText;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if("si".equals(localName)) {
+                text.setLength(0);
+            } else if("t".equals(localName)) {
+                inText = true;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if("t".equals(localName)) {
+                inText = false;
+            } else if("si".equals(localName)) {
+                if(size == numbers.length) {
+                    numbers = Arrays.copyOf(numbers, size * 2);
+                }
                 try {
-                    crtHouse.getClients().get(clientId).signUp(productId, maxSum);
-                } catch (Exception e) {
-                    e.getMessage();
+                    numbers[size] = decode(text);
+                } catch(NumberFormatException e) {
+                    numbers[size] = NOT_A_NUMBER;
                 }
-            });
-        } catch (IOException e) {
-            e.printStackTrace();
+                size++;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if(inText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        int[] getNumbers() {
+            return Arrays.copyOf(numbers, size);
+        }
+    }
+
+    /**
+     * Reads the rows of the sheet, the first one being the header. Every other row holds
+     * the id of the client, the id of the product and the maximum sum, in this order
+     */
+    private static class RequestHandler extends DefaultHandler {
+        private static final int COLUMNS = 3;
+
+        private final RequestSink sink;
+        private final int[] sharedNumbers;
+        private final StringBuilder value = new StringBuilder();
+        private final int[] cells = new int[COLUMNS];
+        private final boolean[] present = new boolean[COLUMNS];
+        private boolean header = true;
+        private boolean inValue;
+        private boolean shared;
+        private int column;
+        private int nextColumn;
+
+        RequestHandler(RequestSink sink, int[] sharedNumbers) {
+            this.sink = sink;
+            this.sharedNumbers = sharedNumbers;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch(localName) {
+                case "row" -> {
+                    Arrays.fill(present, false);
+                    nextColumn = 0;
+                }
+                case "c" -> {
+                    //A cell without a reference follows the previous one
+                    String reference = attributes.getValue("r");
+                    column = reference == null ? nextColumn : columnOf(reference);
+                    nextColumn = column + 1;
+                    shared = "s".equals(attributes.getValue("t"));
+                    value.setLength(0);
+                }
+                //The value of a numeric or shared cell, or the text of an inline string
+                case "v", "t" -> inValue = true;
+                default -> {
+                    //The other elements do not hold values of the requests
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch(localName) {
+                case "v", "t" -> inValue = false;
+                case "c" -> endCell();
+                case "row" -> endRow();
+                default -> {
+                    //The other elements do not hold values of the requests
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if(inValue) {
+                value.append(ch, start, length);
+            }
+        }
+
+        private void endCell() {
+            if(header || column < 0 || column >= COLUMNS) {
+                return;
+            }
+            int number = decode(value);
+            if(shared) {
+                if(number < 0 || number >= sharedNumbers.length) {
+                    throw new NumberFormatException("The cell " + column + " refers to the missing shared string " + number);
+                }
+                number = sharedNumbers[number];
+                if(number == NOT_A_NUMBER) {
+                    throw new NumberFormatException("The cell " + column + " is not a number");
+                }
+            }
+            cells[column] = number;
+            present[column] = true;
+        }
+
+        private void endRow() {
+            if(header) {
+                header = false;
+                return;
+            }
+            //As for an empty cell, a row without all the values is not a request
+            for(boolean isPresent : present) {
+                if(!isPresent) {
+                    throw new NumberFormatException("The request is incomplete");
+                }
+            }
+
+            sink.accept(cells[0], cells[1], cells[2]);
+        }
+
+        //Converts the reference of a cell, like "B12", to the index of its column
+        private static int columnOf(String reference) {
+            int column = 0;
+            int i = 0;
+            while(i < reference.length() && Character.isLetter(reference.charAt(i))) {
+                column = column * 26 + (reference.charAt(i) - 'A' + 1);
+                i++;
+            }
+            return column - 1;
         }
     }
 }
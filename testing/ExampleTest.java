@@ -1,10 +1,27 @@
 package testing;
+import benchmarks.WorkloadGenerator;
 import clients.Client;
 import clients.LegalPerson;
 import clients.NaturalPerson;
+import events.AuctionEvent;
 import exceptions.*;
+import helper.AuctionEventType;
+import helper.ChangeType;
+import helper.CompanyType;
+import helper.RequestOutcome;
 import interfaces.AbstractFactory;
+import interfaces.BidReduction;
+import interfaces.EventSink;
 import interfaces.FactoryProvider;
+import interfaces.RequestSink;
+import journal.AuctionJournal;
+import journal.JournalRecord;
+import journal.JournalReplay;
+import metrics.AuctionMetrics;
+import metrics.Histogram;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.json.simple.parser.ParseException;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
@@ -13,13 +30,26 @@ import organisers.*;
 import products.Clothing;
 import products.Furniture;
 import products.Product;
+import products.ProductFactory;
+import readers.BinaryRequestReader;
 import readers.JSONReader;
+import readers.RequestConverter;
 import readers.XLSXReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import javax.management.ObjectName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 /**
  * A JUnit5 testing class
@@ -40,6 +70,238 @@ public class ExampleTest {
         Assertions.assertNotEquals(testClothing, testFurniture);
     }
 
+    /**
+     * Tests that the catalog finds, replaces and deletes the products by their id
+     */
+    @Test
+    @DisplayName("Catalog index")
+    public void checkCatalogIndex() throws UnknownProductException, InvalidProductRequest {
+        Administrator.resetAll();
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        for(int id = 0; id < 1000; id++) {
+            crtHouse.add(new Product(id, "product" + id, 10, 2000));
+        }
+
+        //A product with an already existing id is ignored
+        crtHouse.add(new Product(5, "other product", 10, 2000));
+        Assertions.assertEquals("product5", crtHouse.findProduct(5, 10).getName());
+        Assertions.assertEquals(1000, crtHouse.getProducts().size());
+
+        crtHouse.deleteProduct(new Product(5, "product5", 10, 2000));
+        Assertions.assertThrows(UnknownProductException.class, () -> crtHouse.findProduct(5, 10));
+        Assertions.assertEquals(new Product(6, "x", 1, 1), crtHouse.findProduct(6, 10));
+        Administrator.resetAll();
+    }
+
+    /**
+     * Tests that a product deleted before being added is deleted as soon as it is added, without blocking the deletion
+     */
+    @Test
+    @DisplayName("Deletion before adding")
+    public void checkDeleteBeforeAdd() {
+        Administrator.resetAll();
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        crtHouse.deleteProduct(new Product(7, "product7", 10, 2000));
+        crtHouse.add(new Product(8, "product8", 10, 2000));
+        Assertions.assertEquals(1, crtHouse.getProducts().size());
+
+        crtHouse.add(new Product(7, "product7", 10, 2000));
+        Assertions.assertThrows(UnknownProductException.class, () -> crtHouse.findProduct(7, 10));
+
+        //The deletion is applied only once, and a reset drops the deletions still waiting
+        crtHouse.add(new Product(7, "product7", 10, 2000));
+        Assertions.assertEquals(2, crtHouse.getProducts().size());
+        crtHouse.deleteProduct(new Product(9, "product9", 10, 2000));
+        Administrator.resetAll();
+        crtHouse.add(new Product(9, "product9", 10, 2000));
+        Assertions.assertEquals(1, crtHouse.getProducts().size());
+        Administrator.resetAll();
+    }
+
+    /**
+     * Tests that the readers share the same snapshot until the catalog changes
+     */
+    @Test
+    @DisplayName("Catalog snapshots")
+    public void checkCatalogSnapshots() {
+        Administrator.resetAll();
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        crtHouse.add(new Product(1, "product1", 10, 2000));
+        crtHouse.add(new Product(2, "product2", 10, 2000));
+
+        CatalogSnapshot first = crtHouse.getCatalogSnapshot();
+        Assertions.assertSame(first, crtHouse.getCatalogSnapshot());
+        Assertions.assertFalse(crtHouse.hasCatalogChangedSince(first.getVersion()));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> first.getProducts().clear());
+
+        //A rejected product does not change the catalog
+        crtHouse.add(new Product(2, "other product", 10, 2000));
+        Assertions.assertFalse(crtHouse.hasCatalogChangedSince(first.getVersion()));
+
+        crtHouse.deleteProduct(new Product(1, "product1", 10, 2000));
+        Assertions.assertTrue(crtHouse.hasCatalogChangedSince(first.getVersion()));
+        CatalogSnapshot second = crtHouse.getCatalogSnapshot();
+        Assertions.assertTrue(second.getVersion() > first.getVersion());
+        Assertions.assertEquals(2, first.getProducts().size());
+        Assertions.assertEquals(1, second.getProducts().size());
+        Administrator.resetAll();
+    }
+
+    /**
+     * Tests that every snapshot taken while products are added holds exactly the products of its version
+     */
+    @Test
+    @DisplayName("Consistent snapshots")
+    public void checkConsistentSnapshots() throws InterruptedException {
+        Administrator.resetAll();
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        long emptyVersion = crtHouse.getCatalogSnapshot().getVersion();
+        Thread writer = new Thread(() -> {
+            for(int id = 0; id < 20000; id++) {
+                crtHouse.add(new Product(id, "product" + id, 10, 2000));
+            }
+        });
+        writer.start();
+
+        //Every change is an addition, so the version tells how many products the snapshot must have
+        while(writer.isAlive()) {
+            CatalogSnapshot crtSnapshot = crtHouse.getCatalogSnapshot();
+            Assertions.assertEquals(crtSnapshot.getVersion() - emptyVersion, crtSnapshot.getProducts().size());
+        }
+        writer.join();
+        Assertions.assertEquals(20000, crtHouse.getCatalogSnapshot().getProducts().size());
+
+        //A clear is seen together with the removal of the products
+        Administrator.resetAll();
+        Assertions.assertTrue(crtHouse.getCatalogSnapshot().getProducts().isEmpty());
+    }
+
+    /**
+     * Tests that the snapshots published by the changes hold the same products as a sorted map, in the order of the ids
+     */
+    @Test
+    @DisplayName("Published snapshots")
+    public void checkPublishedSnapshots() {
+        Administrator.resetAll();
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        Map<Integer, Product> expected = new TreeMap<>(Integer::compareUnsigned);
+        Set<Integer> pendingDeletes = new HashSet<>();
+        Random random = new Random(3);
+        for(int i = 0; i < 5000; i++) {
+            //Mostly small ids, so that many of them are deleted again, and a few negative ones
+            int id = random.nextInt(10) == 0 ? random.nextInt() : random.nextInt(2000);
+            Product p = new Product(id, "product" + id, 10, 2000);
+            //A product deleted before being added is deleted as soon as it is added
+            if(random.nextInt(3) == 0) {
+                crtHouse.deleteProduct(p);
+                if(expected.remove(id) == null) {
+                    pendingDeletes.add(id);
+                }
+            } else {
+                crtHouse.add(p);
+                if(!expected.containsKey(id) && !pendingDeletes.remove(id)) {
+                    expected.put(id, p);
+                }
+            }
+        }
+
+        List<Product> products = crtHouse.getCatalogSnapshot().getProducts();
+        Assertions.assertEquals(new ArrayList<>(expected.values()), products);
+        Assertions.assertEquals(expected.size(), products.size());
+        int index = 0;
+        for(Product p : expected.values()) {
+            Assertions.assertSame(p, products.get(index++));
+        }
+        Administrator.resetAll();
+    }
+
+    /**
+     * Tests that the readers receive only the changes made after the version they know
+     */
+    @Test
+    @DisplayName("Catalog changes")
+    public void checkCatalogChanges() {
+        Administrator.resetAll();
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        long knownVersion = crtHouse.getCatalogSnapshot().getVersion();
+        crtHouse.add(new Product(1, "product1", 10, 2000));
+        crtHouse.add(new Product(2, "product2", 10, 2000));
+        crtHouse.deleteProduct(new Product(1, "product1", 10, 2000));
+
+        List<CatalogChange> changes = crtHouse.getCatalogChanges(knownVersion);
+        Assertions.assertEquals(3, changes.size());
+        Assertions.assertEquals(ChangeType.ADDED, changes.get(0).getType());
+        Assertions.assertEquals(2, changes.get(1).getProduct().getId());
+        Assertions.assertEquals(ChangeType.REMOVED, changes.get(2).getType());
+        Assertions.assertEquals(knownVersion + 3, crtHouse.readProducts(knownVersion));
+
+        //A reader too far behind must read the whole catalog again
+        for(int id = 10; id < 3000; id++) {
+            crtHouse.add(new Product(id, "product" + id, 10, 2000));
+        }
+        Assertions.assertNull(crtHouse.getCatalogChanges(knownVersion));
+        Assertions.assertEquals(crtHouse.getCatalogSnapshot().getVersion(), crtHouse.readProducts(knownVersion));
+
+        //A reset is a change that also requires a full read
+        long beforeReset = crtHouse.getCatalogSnapshot().getVersion();
+        Administrator.resetAll();
+        Assertions.assertNull(crtHouse.getCatalogChanges(beforeReset));
+    }
+
+    /**
+     * Tests that only one of many concurrent sign ups obtains the auction that can start
+     */
+    @Test
+    @DisplayName("Auction registration")
+    public void checkAuctionRegistration() throws InterruptedException {
+        AuctionRegistry registry = new AuctionRegistry();
+        registry.add(new Auction(7, 3, 1000));
+        registry.add(new Auction(7, 3, 1000));
+
+        //Two thousand sign ups must fill both auctions, each one being started exactly once
+        List<Auction> started = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for(int i = 0; i < 2000; i++) {
+            executor.execute(() -> {
+                Auction auction = registry.register(7);
+                if(auction != null) {
+                    started.add(auction);
+                }
+            });
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(2, started.size());
+        Assertions.assertNotSame(started.get(0), started.get(1));
+        Assertions.assertTrue(registry.getAuctions().isEmpty());
+        Assertions.assertNull(registry.register(7));
+    }
+
+    /**
+     * Tests that the same client can not request the same product twice
+     */
+    @Test
+    @DisplayName("Duplicate requests")
+    public void checkDuplicateRequest() throws UnknownProductException, DuplicateRequestException, InvalidProductRequest {
+        Administrator.resetAll();
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        crtHouse.add(new Broker("Marin", 5, 3));
+        crtHouse.add(new Product(0, "sofa", 10, 2018));
+        crtHouse.add(new Product(1, "desk", 10, 2019));
+        Client firstClient = new Client();
+        Client secondClient = new Client();
+        crtHouse.add(firstClient);
+        crtHouse.add(secondClient);
+
+        crtHouse.request(firstClient, 0, 100);
+        crtHouse.request(firstClient, 1, 100);
+        crtHouse.request(secondClient, 0, 100);
+        Assertions.assertThrows(DuplicateRequestException.class, () -> crtHouse.request(firstClient, 0, 200));
+        Assertions.assertThrows(DuplicateRequestException.class, () -> crtHouse.request(secondClient, 0, 100));
+        Administrator.resetAll();
+    }
+
     /**
      * Tests if the clients' ID's are unique
      */
@@ -184,6 +446,474 @@ public class ExampleTest {
                 ()->        clientFactory.create(Arrays.asList(params)));
     }
 
+    /**
+     * Checks that the streaming loader reads the products with their typed attributes, and rejects unknown subtypes
+     */
+    @Test
+    @DisplayName("Streaming JSON loader")
+    public void checkStreamingJSON() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        Administrator.resetAll();
+        JSONReader.readJSON(1);
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        Product sofa = crtHouse.getProducts().stream().filter(p -> p.getId() == 0).findFirst().orElseThrow();
+        Assertions.assertTrue(sofa instanceof Furniture);
+        Assertions.assertEquals("sofa", sofa.getName());
+        Assertions.assertEquals(10, sofa.getMinPrice());
+        Assertions.assertEquals(2018, sofa.getYear());
+
+        //The administrator is added after the brokers, as before
+        List<Employee> employees = crtHouse.getEmployees();
+        Assertions.assertSame(Administrator.getInstance(), employees.get(employees.size() - 1));
+
+        ProductFactory productFactory = new ProductFactory();
+        Assertions.assertThrows(UnknownProductException.class,
+                ()->        productFactory.create("statue", "David", 100, 1504, "marble", "none"));
+        Administrator.resetAll();
+    }
+
+    /**
+     * Checks that the parallel loader gives the same ids and the same order as the sequential one
+     */
+    @Test
+    @DisplayName("Parallel JSON loader")
+    public void checkParallelJSON() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        for(int testNumber = 1; testNumber <= 10; testNumber++) {
+            Administrator.resetAll();
+            JSONReader.readJSON(testNumber, false);
+            List<String> state = describeHouse(crtHouse);
+            List<Employee> employees = new ArrayList<>(crtHouse.getEmployees());
+
+            Administrator.resetAll();
+            JSONReader.readJSON(testNumber, true);
+            Assertions.assertEquals(state, describeHouse(crtHouse));
+            Assertions.assertEquals(employees.toString(), crtHouse.getEmployees().toString());
+        }
+        Administrator.resetAll();
+    }
+
+    /**
+     * Checks that the parallel loader parses the sections split in several chunks, and the strings holding
+     * brackets and quotes, with the same ids and order as the sequential one, and that it rejects a broken file
+     */
+    @Test
+    @DisplayName("Parallel JSON chunks")
+    public void checkParallelJSONChunks() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        Path folder = Files.createTempDirectory("workload");
+        Path configuration = folder.resolve(WorkloadGenerator.CONFIGURATION);
+        Path quoted = folder.resolve("quoted.json");
+        Path broken = folder.resolve("broken.json");
+        try {
+            //More products, clients and auctions than fit in one chunk
+            new WorkloadGenerator().withProductsPerType(300).withNaturalClients(700).withLegalClients(300)
+                    .withBrokers(3).withAuctions(1200).withRequests(1).generate(folder);
+            String text = new String(Files.readAllBytes(Paths.get("tests/test1/test1_info.json")));
+            Files.write(quoted, text.replace("\"Marin\"", "\"Ma]r{in \\\"x\\\" \\\\\"").getBytes());
+            Files.write(broken, text.substring(0, text.length() / 2).getBytes());
+
+            for(Path path : new Path[] {configuration, quoted}) {
+                Administrator.resetAll();
+                JSONReader.readJSON(path, false);
+                List<String> state = describeHouse(crtHouse);
+
+                Administrator.resetAll();
+                JSONReader.readJSON(path, true);
+                Assertions.assertEquals(state, describeHouse(crtHouse));
+            }
+            Assertions.assertEquals("Ma]r{in \"x\" \\", crtHouse.getBrokers().get(0).getName());
+
+            Administrator.resetAll();
+            Assertions.assertThrows(ParseException.class, () -> JSONReader.readJSON(broken, true));
+        } finally {
+            Administrator.resetAll();
+            Files.deleteIfExists(configuration);
+            Files.deleteIfExists(folder.resolve(WorkloadGenerator.REQUESTS));
+            Files.deleteIfExists(quoted);
+            Files.deleteIfExists(broken);
+            Files.deleteIfExists(folder);
+        }
+    }
+
+    /**
+     * Checks that the streaming reader signs up the requests of a sheet without writing the workbook back
+     */
+    @Test
+    @DisplayName("Streaming XLSX reader")
+    public void checkStreamingXLSX() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        Path path = Paths.get("tests/test1/test1.xlsx");
+        byte[] workbook = Files.readAllBytes(path);
+
+        //The requests of the sheet are signed up, so some of the products are sold
+        List<String> sales = runAndCollectSales(1);
+        Assertions.assertFalse(sales.isEmpty());
+        Assertions.assertArrayEquals(workbook, Files.readAllBytes(path));
+        Administrator.resetAll();
+    }
+
+    /**
+     * Checks that the requests read before a malformed row are still given to the sink, and ended
+     */
+    @Test
+    @DisplayName("Malformed XLSX row")
+    public void checkMalformedXLSX() throws IOException {
+        Path path = Files.createTempFile("requests", ".xlsx");
+        try(XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("client");
+            for(int i = 1; i <= 2; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i);
+                row.createCell(1).setCellValue(i + 10);
+                row.createCell(2).setCellValue(i + "00$");
+            }
+            Row badRow = sheet.createRow(3);
+            badRow.createCell(0).setCellValue("not a client");
+            badRow.createCell(1).setCellValue(1);
+            badRow.createCell(2).setCellValue(100);
+            try(OutputStream out = Files.newOutputStream(path)) {
+                workbook.write(out);
+            }
+        }
+
+        List<String> rows = new ArrayList<>();
+        int[] ends = new int[1];
+        RequestSink sink = new RequestSink() {
+            @Override
+            public void accept(int clientId, int productId, int maxSum) {
+                rows.add(clientId + ":" + productId + ":" + maxSum);
+            }
+
+            @Override
+            public void end() {
+                ends[0]++;
+            }
+        };
+        try {
+            Assertions.assertThrows(NumberFormatException.class, () -> XLSXReader.readXLSX(path, sink));
+            Assertions.assertEquals(Arrays.asList("1:11:100", "2:12:200"), rows);
+            Assertions.assertEquals(1, ends[0]);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Checks the outcome codes returned for a batch of requests
+     */
+    @Test
+    @DisplayName("Bulk sign up")
+    public void checkBulkSignUp() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        Administrator.resetAll();
+        JSONReader.readJSON(1);
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+
+        RequestBatch batch = new RequestBatch(2);
+        batch.add(0, 0, 1000);
+        batch.add(1000, 0, 1000);
+        batch.add(0, 1000, 1000);
+        batch.add(1, 0, -1);
+        batch.add(0, 0, 2000);
+        RequestOutcome[] outcomes = crtHouse.requestAll(batch);
+
+        Assertions.assertArrayEquals(new RequestOutcome[]{RequestOutcome.ACCEPTED,
+                RequestOutcome.UNKNOWN_CLIENT, RequestOutcome.UNKNOWN_PRODUCT,
+                RequestOutcome.INVALID_PRICE, RequestOutcome.DUPLICATE}, outcomes);
+        Administrator.resetAll();
+    }
+
+    /**
+     * Checks that a binary request file holds the same requests as the Excel file it was converted from
+     */
+    @Test
+    @DisplayName("Binary request file")
+    public void checkBinaryRequests() throws IOException {
+        List<String> excelRequests = new ArrayList<>();
+        XLSXReader.readXLSX(1, (clientId, productId, maxSum) -> excelRequests.add(clientId + ":" + productId + ":" + maxSum));
+
+        Path path = RequestConverter.convert(1);
+        try {
+            List<String> binaryRequests = new ArrayList<>();
+            BinaryRequestReader.readRequests(path,
+                    (clientId, productId, maxSum) -> binaryRequests.add(clientId + ":" + productId + ":" + maxSum));
+            Assertions.assertFalse(excelRequests.isEmpty());
+            Assertions.assertEquals(excelRequests, binaryRequests);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Checks that a generated workload is loaded with the counts it was generated with, and that its requests are read
+     */
+    @Test
+    @DisplayName("Generated workload")
+    public void checkWorkloadGenerator() throws IOException, UnknownDataException, JSONDataException, ParseException {
+        Path folder = Files.createTempDirectory("workload");
+        Path configuration = folder.resolve(WorkloadGenerator.CONFIGURATION);
+        Path requests = folder.resolve(WorkloadGenerator.REQUESTS);
+        try {
+            new WorkloadGenerator().withProductsPerType(20).withNaturalClients(15).withLegalClients(5)
+                    .withBrokers(3).withAuctions(10).withRequests(500).withSkew(1.2).withSeed(7).generate(folder);
+
+            Administrator.resetAll();
+            JSONReader.readJSON(configuration, false);
+            AuctionHouse crtHouse = AuctionHouse.getInstance();
+            Assertions.assertEquals(100, crtHouse.getProducts().size());
+            Assertions.assertEquals(20, crtHouse.getClients().size());
+            Assertions.assertEquals(3, crtHouse.getBrokers().size());
+            Assertions.assertEquals(10, crtHouse.getAuctions().size());
+
+            //Every request is for an existing product and client, at a price the client can pay
+            List<Integer> productIds = new ArrayList<>();
+            long noRequests = BinaryRequestReader.readRequests(requests, (clientId, productId, maxSum) -> {
+                Assertions.assertTrue(clientId >= 0 && clientId < 20);
+                Assertions.assertTrue(maxSum >= crtHouse.getCatalogSnapshot().getProducts().stream()
+                        .filter(p -> p.getId() == productId).findFirst().get().getMinPrice());
+                productIds.add(productId);
+            });
+            Assertions.assertEquals(500, noRequests);
+
+            //The skewed distribution makes the most requested product far more popular than the average one
+            Assertions.assertTrue(Collections.frequency(productIds, productIds.stream()
+                    .max(Comparator.comparingInt(id -> Collections.frequency(productIds, id))).get()) > 25);
+        } finally {
+            Files.deleteIfExists(configuration);
+            Files.deleteIfExists(requests);
+            Files.deleteIfExists(folder);
+            Administrator.resetAll();
+        }
+    }
+
+    /**
+     * Checks that the percentiles of a histogram are exact for small values, and within its precision for big ones
+     */
+    @Test
+    @DisplayName("Metrics histogram")
+    public void checkHistogram() {
+        Histogram histogram = new Histogram();
+        Assertions.assertEquals(0, histogram.getP99());
+        for(int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        Assertions.assertEquals(100, histogram.getCount());
+        Assertions.assertEquals(50.5, histogram.getMean());
+        Assertions.assertEquals(50, histogram.getP50());
+        Assertions.assertEquals(100, histogram.getMax());
+
+        histogram.reset();
+        for(long value = 1; value <= 1_000_000; value++) {
+            histogram.record(value * 1000);
+        }
+        Assertions.assertEquals(500_000_000, histogram.getP50(), 500_000_000 / 32.0);
+        Assertions.assertEquals(990_000_000, histogram.getP99(), 990_000_000 / 32.0);
+        Assertions.assertEquals(1_000_000_000, histogram.getMax());
+    }
+
+    /**
+     * Checks that every request and every auction of a test is counted, and that the metrics are published through JMX
+     */
+    @Test
+    @DisplayName("Auction metrics")
+    public void checkAuctionMetrics() throws Exception {
+        AuctionMetrics auctionMetrics = AuctionMetrics.getInstance();
+        Administrator.resetAll();
+        JSONReader.readJSON(1);
+        auctionMetrics.reset();
+        List<String> rows = new ArrayList<>();
+        XLSXReader.readXLSX(1, (clientId, productId, maxSum) -> rows.add(clientId + ":" + productId));
+        XLSXReader.readXLSX(1);
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        crtHouse.awaitAuctions();
+
+        Assertions.assertEquals(rows.size(), auctionMetrics.getRequests());
+        Assertions.assertEquals(crtHouse.getOrganisedAuctions(), auctionMetrics.getAuctionsStarted());
+        Assertions.assertEquals(auctionMetrics.getAuctionsStarted(),
+                auctionMetrics.getAuctionsSold() + auctionMetrics.getAuctionsUnsold());
+        Assertions.assertEquals(crtHouse.getSoldProducts().size(), auctionMetrics.getAuctionsSold());
+        Assertions.assertEquals(auctionMetrics.getBids(), auctionMetrics.getStepBids().getMean()
+                * auctionMetrics.getStepBids().getCount(), 1e-6);
+        Assertions.assertTrue(auctionMetrics.getSignUpLatency().getP50() <= auctionMetrics.getSignUpLatency().getP99());
+
+        //Every row is timed from its own start, so the rows of a batch never last longer than the batch
+        Histogram signUps = auctionMetrics.getSignUpLatency();
+        Histogram batches = auctionMetrics.getBatchLatency();
+        Assertions.assertTrue(batches.getCount() > 0);
+        Assertions.assertTrue(signUps.getMax() <= batches.getMax());
+        Assertions.assertTrue(signUps.getMean() * signUps.getCount() <= batches.getMean() * batches.getCount());
+        Assertions.assertTrue(auctionMetrics.dump().contains("auction_requests_total " + rows.size()));
+
+        auctionMetrics.registerMBeans();
+        Assertions.assertEquals(auctionMetrics.getAuctionsSold(), ManagementFactory
+                .getPlatformMBeanServer().getAttribute(new ObjectName("auction:type=AuctionMetrics"),
+                        "AuctionsSold"));
+    }
+
+    /**
+     * Checks that a flight recording of a test holds the events of the auction house, with the ids of their auctions
+     */
+    @Test
+    @DisplayName("Flight recorder events")
+    public void checkFlightRecorderEvents() throws Exception {
+        Administrator.resetAll();
+        JSONReader.readJSON(1);
+        Path path = Files.createTempFile("auction", ".jfr");
+        List<RecordedEvent> recorded;
+        try(Recording recording = new Recording()) {
+            for(String name : new String[] {"SignUp", "BrokerAssignment", "AuctionStart", "BidStep",
+                    "WinnerResolution", "ProductDeletion"}) {
+                recording.enable("auction." + name).withoutThreshold();
+            }
+            recording.start();
+            XLSXReader.readXLSX(1);
+            AuctionHouse.getInstance().awaitAuctions();
+
+            //The sold products are deleted by background tasks
+            long deadline = System.currentTimeMillis() + 5000;
+            while(!Collections.disjoint(AuctionHouse.getInstance().getProducts(), AuctionHouse.getInstance().getSoldProducts())
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            recording.stop();
+            recording.dump(path);
+            recorded = RecordingFile.readAllEvents(path);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        for(RecordedEvent event : recorded) {
+            counts.merge(event.getEventType().getName(), 1, Integer::sum);
+        }
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        Assertions.assertEquals(crtHouse.getOrganisedAuctions(), counts.get("auction.AuctionStart"));
+        Assertions.assertEquals(crtHouse.getOrganisedAuctions(), counts.get("auction.WinnerResolution"));
+        Assertions.assertTrue(counts.get("auction.SignUp") >= counts.get("auction.BrokerAssignment"));
+        Assertions.assertNotNull(counts.get("auction.ProductDeletion"));
+
+        //Every step belongs to a started auction, and carries its product
+        for(RecordedEvent event : recorded) {
+            if(event.getEventType().getName().equals("auction.BidStep")) {
+                Assertions.assertTrue(event.getInt("auctionId") >= 1);
+                Assertions.assertTrue(event.getInt("productId") >= 0);
+                Assertions.assertTrue(event.getInt("step") >= 0);
+                Assertions.assertTrue(event.getInt("participants") >= event.getInt("bids"));
+            }
+        }
+    }
+
+    /**
+     * Checks that ending the bidding early sells the same products, at the same prices, to the same clients
+     */
+    @Test
+    @DisplayName("Early termination")
+    public void checkEarlyTermination() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        AuctionMetrics auctionMetrics = AuctionMetrics.getInstance();
+        boolean initial = crtHouse.isEarlyTermination();
+        auctionMetrics.reset();
+        try {
+            for(int testNumber = 1; testNumber <= 10; testNumber++) {
+                crtHouse.setEarlyTermination(false);
+                List<String> fullRun = runAuctions(testNumber);
+                crtHouse.setEarlyTermination(true);
+                Assertions.assertEquals(fullRun, runAuctions(testNumber));
+            }
+
+            //The skipped steps are counted, and every auction that ended early saved at least one step
+            Assertions.assertTrue(auctionMetrics.getAuctionsEndedEarly() > 0);
+            Assertions.assertTrue(auctionMetrics.getStepsSaved() >= auctionMetrics.getAuctionsEndedEarly());
+        } finally {
+            crtHouse.setEarlyTermination(initial);
+            Administrator.resetAll();
+        }
+    }
+
+    /**
+     * Checks that the reductions used by the auctions find the same biggest bid and winner as the scalar loops
+     */
+    @Test
+    @DisplayName("Bid reductions")
+    public void checkBidReduction() {
+        BidReduction scalar = new ScalarBidReduction();
+        List<BidReduction> reductions = new ArrayList<>();
+        reductions.add(BidReductions.getInstance());
+        if(BidReductions.vector() != null) {
+            reductions.add(BidReductions.vector());
+        }
+
+        Random random = new Random(7);
+        for(int length : new int[] {0, 1, 5, 63, 64, 65, 127, 1000, 1003}) {
+            //Few distinct sums and won auctions, so there are many ties
+            double[] bids = new double[length];
+            int[] noWonAuctions = new int[length];
+            for(int row = 0; row < length; row++) {
+                bids[row] = random.nextInt(20) + (random.nextBoolean() ? 0.5 : 0.0);
+                noWonAuctions[row] = random.nextInt(4);
+            }
+            double biggestBid = scalar.max(bids, 0, length);
+
+            for(BidReduction reduction : reductions) {
+                Assertions.assertEquals(biggestBid, reduction.max(bids, 0, length));
+                Assertions.assertEquals(scalar.max(bids, length / 3, length), reduction.max(bids, length / 3, length));
+                for(double bid : new double[] {biggestBid, 7, 100}) {
+                    Assertions.assertEquals(scalar.findWinner(bids, noWonAuctions, length, bid, Broker.THRESHOLD),
+                            reduction.findWinner(bids, noWonAuctions, length, bid, Broker.THRESHOLD));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that ending the bidding early publishes the same outcomes, with the same prices and biggest bids
+     */
+    @Test
+    @DisplayName("Early termination events")
+    public void checkEarlyTerminationEvents() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        boolean initial = crtHouse.isEarlyTermination();
+        try {
+            for(int testNumber = 1; testNumber <= 10; testNumber++) {
+                crtHouse.setEarlyTermination(false);
+                List<String> fullRun = collectOutcomes(testNumber);
+                crtHouse.setEarlyTermination(true);
+                Assertions.assertEquals(fullRun, collectOutcomes(testNumber));
+            }
+        } finally {
+            crtHouse.setEarlyTermination(initial);
+            Administrator.resetAll();
+        }
+    }
+
+    //Runs the auctions of a test, and describes every published event except the steps and the bids
+    private List<String> collectOutcomes(int testNumber) throws UnknownDataException, JSONDataException, ParseException, IOException {
+        List<String> outcomes = Collections.synchronizedList(new ArrayList<>());
+        EventSink recorder = new EventSink() {
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            public void accept(AuctionEvent event) {
+                //Only the number of steps and bids may differ
+                if(event.getType() != AuctionEventType.STEP && event.getType() != AuctionEventType.BID) {
+                    outcomes.add(event.toString());
+                }
+            }
+        };
+
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        crtHouse.getEvents().addSink(recorder);
+        try {
+            runAndCollectSales(testNumber);
+        } finally {
+            crtHouse.getEvents().removeSink(recorder);
+        }
+        Assertions.assertFalse(outcomes.isEmpty());
+        return outcomes;
+    }
+
     /**
      * Checks what happens if the maximum sum bid by the client is less than the price of the product
      */
@@ -236,6 +966,276 @@ public class ExampleTest {
         Assertions.assertEquals(firstRun, secondRun);
     }
 
+    //Runs a test and returns the sold products, as "id:price" strings sorted alphabetically
+    private List<String> runAndCollectSales(int testNumber) throws UnknownDataException, JSONDataException, ParseException, IOException {
+        Administrator.resetAll();
+        JSONReader.readJSON(testNumber);
+        XLSXReader.readXLSX(testNumber);
+        AuctionHouse.getInstance().awaitAuctions();
+
+        List<String> sales = new ArrayList<>();
+        for(Product p : AuctionHouse.getInstance().getSoldProducts()) {
+            sales.add(p.getId() + ":" + p.getSellPrice());
+        }
+        Collections.sort(sales);
+        return sales;
+    }
+
+    /**
+     * Checks that the bids added to a buffer are the same as the bids returned in pairs
+     */
+    @Test
+    @DisplayName("Primitive bids")
+    public void checkBidBuffer() {
+        Client client = new NaturalPerson(LocalDate.of(1990, 5, 1));
+        client.setNoWonAuctions(3);
+        Information info = new Information();
+        info.setMaxAffordableBid(500);
+        info.setMaxAuctionBid(120);
+        info.setCrtBid(100);
+        client.update(info);
+
+        BidBuffer bids = new BidBuffer(1);
+        client.bid(bids);
+        client.bid(bids);
+        Assertions.assertEquals(2, bids.size());
+        Assertions.assertEquals(client.bid().getFirst(), bids.getAmount(1));
+        Assertions.assertEquals(3, bids.getNoWonAuctions(0));
+        Assertions.assertEquals(bids.getAmount(0), bids.max(0));
+
+        bids.clear();
+        Assertions.assertEquals(0, bids.size());
+        Assertions.assertEquals(0, bids.max(0));
+    }
+
+    /**
+     * Checks that the bids computed by the bid book of a broker are the ones of the clients,
+     * and that the bidding state is kept in the information objects after the auction
+     */
+    @Test
+    @DisplayName("Bid book")
+    public void checkBidBook() throws DuplicateRequestException {
+        Broker broker = new Broker("Marin", 5, 3);
+        Product product = new Product(0, "sofa", 10, 2018);
+        Client natural = new NaturalPerson(LocalDate.of(1990, 5, 1));
+        Client legal = new LegalPerson(CompanyType.SA, 5000);
+        broker.add(natural, product, 400);
+        broker.add(legal, product, 300);
+
+        broker.start(product);
+        BidBuffer bids = new BidBuffer();
+        broker.bid(product, bids);
+        Assertions.assertEquals(Client.computeBid(0, 0, 400, natural.getBidFactor()), bids.getAmount(0));
+        Assertions.assertEquals(Client.computeBid(0, 0, 300, 1.5), bids.getAmount(1));
+
+        //The clients read their rows through their information objects
+        broker.notifyObservers(bids.max(0), product);
+        Assertions.assertEquals(bids.getAmount(1), legal.getInfo().getCrtBid());
+        Assertions.assertEquals(bids.max(0), natural.getInfo().getMaxAuctionBid());
+
+        broker.reset(product);
+        Assertions.assertEquals(bids.getAmount(0), broker.getEntryInfo().get(0).getCrtBid());
+        Assertions.assertEquals(bids.max(0), broker.getEntryInfo().get(1).getMaxAuctionBid());
+    }
+
+    /**
+     * Checks that the events of an auction reach a sink in order, ending with the ENDED event
+     */
+    @Test
+    @DisplayName("Auction events")
+    public void checkAuctionEvents() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        List<AuctionEvent> received = Collections.synchronizedList(new ArrayList<>());
+        EventSink recorder = new EventSink() {
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+
+            @Override
+            public void accept(AuctionEvent event) {
+                received.add(event);
+            }
+        };
+
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        crtHouse.getEvents().addSink(recorder);
+        List<String> sales = runAndCollectSales(1);
+        crtHouse.getEvents().removeSink(recorder);
+
+        //Every auction starts with a STARTED event, then its steps and ends with an ENDED event
+        Assertions.assertFalse(received.isEmpty());
+        Assertions.assertEquals(AuctionEventType.STARTED, received.get(0).getType());
+        Assertions.assertEquals(AuctionEventType.ENDED, received.get(received.size() - 1).getType());
+        long started = received.stream().filter(e -> e.getType() == AuctionEventType.STARTED).count();
+        long ended = received.stream().filter(e -> e.getType() == AuctionEventType.ENDED).count();
+        long sold = received.stream().filter(e -> e.getType() == AuctionEventType.SOLD).count();
+        Assertions.assertEquals(started, ended);
+        Assertions.assertEquals(sales.size(), sold);
+        Administrator.resetAll();
+    }
+
+    /**
+     * Checks that restoring a snapshot, compressed or not, gives back the state of the auction house
+     */
+    @Test
+    @DisplayName("House snapshot")
+    public void checkHouseSnapshot() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        runAndCollectSales(10);
+        List<String> state = describeHouse(crtHouse);
+
+        for(boolean compressed : new boolean[]{false, true}) {
+            Path path = Files.createTempFile("house", ".snapshot");
+            try {
+                HouseSnapshot.save(crtHouse, path, compressed);
+                Administrator.resetAll();
+                HouseSnapshot.restore(crtHouse, path);
+                Assertions.assertEquals(state, describeHouse(crtHouse));
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+        Administrator.resetAll();
+    }
+
+    //Runs the auctions of a test, and describes the sold products, the clients and the brokers' totals afterwards
+    private List<String> runAuctions(int testNumber) throws UnknownDataException, JSONDataException, ParseException, IOException {
+        Administrator.resetAll();
+        JSONReader.readJSON(testNumber);
+        XLSXReader.readXLSX(testNumber);
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        crtHouse.awaitAuctions();
+
+        List<String> state = new ArrayList<>();
+        for(Product p : crtHouse.getSoldProducts()) {
+            state.add("sold " + p.getId() + ":" + p.getSellPrice());
+        }
+        for(Client c : crtHouse.getClients()) {
+            state.add(c + " " + c.getNoParticipation() + " " + c.getNoWonAuctions());
+        }
+
+        //The brokers are assigned at random, so only the totals of all the brokers are compared
+        double cash = 0;
+        int noWonAuctions = 0;
+        for(Broker br : crtHouse.getBrokers()) {
+            cash += br.getCash();
+            noWonAuctions += br.getNoWonAuctions();
+        }
+        state.add(String.format("brokers %.2f %d", cash, noWonAuctions));
+        return state;
+    }
+
+    //Describes the products, clients, brokers and auctions of the house, in a comparable form
+    private List<String> describeHouse(AuctionHouse crtHouse) {
+        List<String> state = new ArrayList<>();
+        for(Product p : crtHouse.getProducts()) {
+            state.add(p.getClass().getSimpleName() + " " + p);
+        }
+        Collections.sort(state);
+        for(Product p : crtHouse.getSoldProducts()) {
+            state.add("sold " + p.getId() + ":" + p.getSellPrice());
+        }
+        for(Client c : crtHouse.getClients()) {
+            state.add(c.getClass().getSimpleName() + " " + c + " " + c.getNoParticipation() + " " + c.getNoWonAuctions());
+        }
+        for(Broker br : crtHouse.getBrokers()) {
+            state.add(br.getName() + " " + br.getCash() + " " + br.getNoWonAuctions());
+        }
+        for(Auction auction : crtHouse.getAuctions()) {
+            state.add(auction.getId() + " " + auction.getIdProduct() + " " + auction.getNoSignedUpParticipants());
+        }
+        return state;
+    }
+
+    /**
+     * Checks that replaying the journal of a test gives the same results as running its auctions
+     */
+    @Test
+    @DisplayName("Journal replay")
+    public void checkJournalReplay() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        Path path = Files.createTempFile("auctions", ".journal");
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        try {
+            List<String> sales;
+            try(AuctionJournal crtJournal = AuctionJournal.open(path, 4)) {
+                crtHouse.setJournal(crtJournal);
+                sales = runAndCollectSales(10);
+                crtHouse.setJournal(null);
+                Assertions.assertEquals(sales.size(), crtJournal.size());
+
+                double cash = 0;
+                for(Broker br : crtHouse.getBrokers()) {
+                    cash += br.getCash();
+                }
+                int[] wins = new int[crtHouse.getClients().size()];
+                for(Client c : crtHouse.getClients()) {
+                    wins[c.getId()] = c.getNoWonAuctions();
+                }
+
+                //Load only the configuration, then rebuild the results from the journal
+                Administrator.resetAll();
+                JSONReader.readJSON(10);
+                Assertions.assertEquals(sales.size(), JournalReplay.replay(path, crtHouse));
+
+                List<String> replayedSales = new ArrayList<>();
+                for(Product p : crtHouse.getSoldProducts()) {
+                    replayedSales.add(p.getId() + ":" + p.getSellPrice());
+                }
+                Collections.sort(replayedSales);
+                Assertions.assertEquals(sales, replayedSales);
+
+                double replayedCash = 0;
+                for(Broker br : crtHouse.getBrokers()) {
+                    replayedCash += br.getCash();
+                }
+                Assertions.assertEquals(cash, replayedCash, 1e-6);
+                for(Client c : crtHouse.getClients()) {
+                    Assertions.assertEquals(wins[c.getId()], c.getNoWonAuctions());
+                }
+            }
+
+            //A new run opens the journal after the replayed outcomes, so they are kept and its outcomes follow them
+            try(AuctionJournal crtJournal = AuctionJournal.open(path)) {
+                Assertions.assertEquals(sales.size(), crtJournal.size());
+                crtJournal.append(new JournalRecord(sales.size(), 0, 0, 0, 1.0, 0.1));
+            }
+            Assertions.assertEquals(sales.size() + 1, AuctionJournal.read(path).size());
+        } finally {
+            crtHouse.setJournal(null);
+            Administrator.resetAll();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Checks that the auctions run in parallel have the same results as those run sequentially
+     */
+    @Test
+    @DisplayName("Pooled auction engine")
+    public void checkPooledEngine() throws UnknownDataException, JSONDataException, ParseException, IOException {
+        AuctionHouse crtHouse = AuctionHouse.getInstance();
+        List<String> sequentialSales = runAndCollectSales(10);
+
+        crtHouse.setEngine(AuctionEngine.pooled(4));
+        List<String> pooledSales = runAndCollectSales(10);
+
+        //The engine can also be chosen through the system properties, the previous pool being stopped
+        System.setProperty("auction.engine", "POOLED");
+        System.setProperty("auction.engineThreads", "2");
+        try {
+            crtHouse.setEngine(AuctionEngine.fromProperties());
+        } finally {
+            System.clearProperty("auction.engine");
+            System.clearProperty("auction.engineThreads");
+        }
+        List<String> configuredSales = runAndCollectSales(10);
+        crtHouse.setEngine(AuctionEngine.sequential());
+
+        Assertions.assertFalse(sequentialSales.isEmpty());
+        Assertions.assertEquals(sequentialSales, pooledSales);
+        Assertions.assertEquals(sequentialSales, configuredSales);
+    }
+
     private void checkMultithreadingAux() throws InterruptedException {
 
         //Start an executor
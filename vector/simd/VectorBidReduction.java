@@ -0,0 +1,90 @@
+package simd;
+import interfaces.BidReduction;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import organisers.ScalarBidReduction;
+
+/**
+ * The reductions over the bids computed with the Vector API, several rows at once. The
+ * class needs the jdk.incubator.vector module both when it is compiled and when it is run
+ * ("--add-modules jdk.incubator.vector"), so it is kept apart from the other sources and
+ * compiled only by the vector profile of the build, and it is only loaded by name, by BidReductions.
+ * The short arrays are left to the scalar loops, which are faster below a few vectors
+ */
+public class VectorBidReduction implements BidReduction {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    //The same number of lanes as DOUBLES, so that a mask of bids selects the same rows of won auctions
+    private static final VectorSpecies<Integer> INTS =
+            IntVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(DOUBLES.length() * Integer.SIZE));
+
+    //Below this number of rows, the scalar loops are used
+    private static final int MIN_LENGTH = 4 * DOUBLES.length();
+
+    private final ScalarBidReduction scalar = new ScalarBidReduction();
+
+    @Override
+    public double max(double[] amounts, int from, int to) {
+        if(to - from < MIN_LENGTH) {
+            return scalar.max(amounts, from, to);
+        }
+
+        DoubleVector maxes = DoubleVector.zero(DOUBLES);
+        int i = from;
+        for(int bound = from + DOUBLES.loopBound(to - from); i < bound; i += DOUBLES.length()) {
+            maxes = maxes.max(DoubleVector.fromArray(DOUBLES, amounts, i));
+        }
+        //The lanes started from 0, as the scalar maximum does
+        return Math.max(maxes.reduceLanes(VectorOperators.MAX), scalar.max(amounts, i, to));
+    }
+
+    @Override
+    public int findWinner(double[] bids, int[] noWonAuctions, int length, double bid, double threshold) {
+        if(length < MIN_LENGTH) {
+            return scalar.findWinner(bids, noWonAuctions, length, bid, threshold);
+        }
+
+        //First find the most won auctions among the rows that offered the bid
+        int bound = DOUBLES.loopBound(length);
+        IntVector maxes = IntVector.broadcast(INTS, -1);
+        for(int row = 0; row < bound; row += DOUBLES.length()) {
+            VectorMask<Integer> offered = offered(bids, row, bid, threshold);
+            maxes = maxes.blend(maxes.max(IntVector.fromArray(INTS, noWonAuctions, row)), offered);
+        }
+        int noMaxWonAuctions = maxes.reduceLanes(VectorOperators.MAX);
+        for(int row = bound; row < length; row++) {
+            if(Math.abs(bids[row] - bid) < threshold) {
+                noMaxWonAuctions = Math.max(noMaxWonAuctions, noWonAuctions[row]);
+            }
+        }
+        if(noMaxWonAuctions < 0) {
+            return -1;
+        }
+
+        //Then the first of those rows, which the scalar search would have kept
+        for(int row = 0; row < bound; row += DOUBLES.length()) {
+            VectorMask<Integer> winners = offered(bids, row, bid, threshold)
+                    .and(IntVector.fromArray(INTS, noWonAuctions, row).eq(noMaxWonAuctions));
+            if(winners.anyTrue()) {
+                return row + winners.firstTrue();
+            }
+        }
+        for(int row = bound; row < length; row++) {
+            if(Math.abs(bids[row] - bid) < threshold && noWonAuctions[row] == noMaxWonAuctions) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    //Selects the rows of a vector whose bid is equal to the winning bid
+    private static VectorMask<Integer> offered(double[] bids, int row, double bid, double threshold) {
+        return DoubleVector.fromArray(DOUBLES, bids, row).sub(bid).abs()
+                .compare(VectorOperators.LT, threshold).cast(INTS);
+    }
+}